@@ -0,0 +1,432 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import android.app.Activity;
+import com.aptoide.sdk.billing.AptoideBillingClient;
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.PurchasesResponseListener;
+import com.aptoide.sdk.billing.PurchasesUpdatedListener;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
+import com.aptoide.sdk.billing.listeners.ConsumeResponseListener;
+import com.unity3d.player.UnityPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls into {@code AptoideBillingSDKUnityBridge}, including its private serializers and
+ * listeners.
+ *
+ * <p>The bridge lives in the default package, which code in a named package cannot reference, so
+ * every member is resolved once by reflection into a {@link MethodHandle} and invoked with
+ * {@code invokeExact}, which the JIT inlines like a direct call.
+ */
+final class BridgeAccess {
+    static final String UNITY_CLASS_NAME = "AptoideBillingSDKManager";
+
+    private static final Class<?> BRIDGE = loadBridge();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodHandle INITIALIZE =
+            findStatic("initialize", String.class, String.class);
+    private static final MethodHandle QUERY_PRODUCT_DETAILS_ASYNC =
+            findStatic("queryProductDetailsAsync", List.class, String.class);
+    private static final MethodHandle QUERY_MIXED_PRODUCT_DETAILS_ASYNC =
+            findStatic("queryProductDetailsAsync", List.class, List.class);
+    private static final MethodHandle QUERY_PURCHASES_ASYNC =
+            findStatic("queryPurchasesAsync", String.class);
+    private static final MethodHandle CONSUME_BATCH_ASYNC =
+            findStatic("consumeBatchAsync", List.class);
+    private static final MethodHandle END_CONNECTION = findStatic("endConnection");
+    private static final MethodHandle GET_CONNECTION_METRICS = findStatic("getConnectionMetrics");
+    private static final MethodHandle START_CALLBACK_TRACE =
+            findStatic("startCallbackTrace", String.class);
+    private static final MethodHandle STOP_CALLBACK_TRACE = findStatic("stopCallbackTrace");
+    private static final MethodHandle POLL_EVENTS = findStatic("pollEvents");
+    private static final MethodHandle SET_EVENT_BATCHING_ENABLED =
+            findStatic("setEventBatchingEnabled", boolean.class);
+    private static final MethodHandle SET_STREAMING_JSON_SERIALIZER_ENABLED =
+            findStatic("setStreamingJsonSerializerEnabled", boolean.class);
+    private static final MethodHandle SET_METRICS_ENABLED =
+            findStatic("setMetricsEnabled", boolean.class);
+    private static final MethodHandle GET_METRICS_SNAPSHOT = findStatic("getMetricsSnapshot");
+    private static final MethodHandle PRODUCT_DETAILS_RESULT_TO_JSON =
+            findStatic("productDetailsResultToJson", int.class, long.class, BillingResult.class,
+                    List.class, List.class);
+    private static final MethodHandle PURCHASES_RESPONSE_RESULT_TO_JSON =
+            findStatic("purchasesResponseResultToJson", BillingResult.class, List.class);
+    private static final MethodHandle GET_PRODUCT_DETAILS_FROM_PRODUCT_ID =
+            findStatic("getProductDetailsFromProductId", String.class);
+    private static final MethodHandle SEND_UNITY_MESSAGE =
+            findStatic("sendUnityMessage", String.class, String.class);
+    private static final MethodHandle ON_PRODUCT_DETAILS_RESULT = findProductDetailsResult();
+    private static final MethodHandle ADD_BINARY_PRODUCT_DETAILS = findBinaryPayloads(
+            "addProductDetails", int.class, long.class, BillingResult.class, List.class,
+            List.class);
+    private static final MethodHandle ADD_BINARY_PURCHASES =
+            findBinaryPayloads("addPurchases", byte.class, BillingResult.class, List.class);
+    private static final MethodHandle ENCODE_BINARY_PAYLOAD =
+            findBinaryPayloads("encode", int.class);
+    private static final byte KIND_PURCHASES_RESPONSE =
+            (byte) getBinaryPayloadsConstant("KIND_PURCHASES_RESPONSE");
+
+    private static File filesDir;
+
+    private BridgeAccess() {
+    }
+
+    /**
+     * Points the stand-ins at a fresh files directory and the given client factory, and
+     * initializes the bridge, which connects right away. Main thread work runs on
+     * {@code uiThread}.
+     */
+    static void initialize(AptoideBillingClient.Factory clientFactory, Executor uiThread) {
+        try {
+            filesDir = Files.createTempDirectory("aptoide-billing-bench").toFile();
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+        UnityPlayer.currentActivity = new Activity(filesDir, uiThread);
+        AptoideBillingClient.factory = clientFactory;
+        try {
+            INITIALIZE.invokeExact(UNITY_CLASS_NAME, "benchmark-public-key");
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    /**
+     * Stops the executors of the bridge so that the JVM can exit, and deletes its files.
+     */
+    static void shutdown() {
+        for (String name : new String[]{"backgroundExecutor", "syncCallExecutor",
+                "asyncCallExecutor", "connectionScheduler"}) {
+            ExecutorService executor = (ExecutorService) getStaticField(name);
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (filesDir != null) {
+            File[] files = filesDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            filesDir.delete();
+        }
+    }
+
+    /**
+     * Waits for the work queued so far on the background executor of the bridge, such as writing
+     * the product catalog cache, so that it does not run while measuring.
+     */
+    static void awaitBackgroundWork() {
+        try {
+            ((ExecutorService) getStaticField("backgroundExecutor")).submit(() -> {
+            }).get();
+        } catch (InterruptedException | ExecutionException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    static int queryProductDetailsAsync(List<String> products, String productType) {
+        try {
+            return (int) QUERY_PRODUCT_DETAILS_ASYNC.invokeExact(products, productType);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static int queryProductDetailsAsync(List<String> products, List<String> productTypes) {
+        try {
+            return (int) QUERY_MIXED_PRODUCT_DETAILS_ASYNC.invokeExact(products, productTypes);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static int consumeBatchAsync(List<String> purchaseTokens) {
+        try {
+            return (int) CONSUME_BATCH_ASYNC.invokeExact(purchaseTokens);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static void endConnection() {
+        try {
+            END_CONNECTION.invokeExact();
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String getConnectionMetrics() {
+        try {
+            return (String) GET_CONNECTION_METRICS.invokeExact();
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String startCallbackTrace(String fileName) {
+        try {
+            return (String) START_CALLBACK_TRACE.invokeExact(fileName);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String stopCallbackTrace() {
+        try {
+            return (String) STOP_CALLBACK_TRACE.invokeExact();
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static void queryPurchasesAsync(String productType) {
+        try {
+            QUERY_PURCHASES_ASYNC.invokeExact(productType);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String pollEvents() {
+        try {
+            return (String) POLL_EVENTS.invokeExact();
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static void setEventBatchingEnabled(boolean enabled) {
+        try {
+            SET_EVENT_BATCHING_ENABLED.invokeExact(enabled);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static void setStreamingJsonSerializerEnabled(boolean enabled) {
+        try {
+            SET_STREAMING_JSON_SERIALIZER_ENABLED.invokeExact(enabled);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static void setMetricsEnabled(boolean enabled) {
+        try {
+            SET_METRICS_ENABLED.invokeExact(enabled);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String getMetricsSnapshot() {
+        try {
+            return (String) GET_METRICS_SNAPSHOT.invokeExact();
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String productDetailsResultToJson(int requestId, long generation,
+            BillingResult billingResult, List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        try {
+            return (String) PRODUCT_DETAILS_RESULT_TO_JSON.invokeExact(requestId, generation,
+                    billingResult, productDetailsList, unfetchedProductList);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static String purchasesResponseResultToJson(BillingResult billingResult,
+            List<Purchase> purchases) {
+        try {
+            return (String) PURCHASES_RESPONSE_RESULT_TO_JSON.invokeExact(billingResult,
+                    purchases);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    /**
+     * Encodes the result into the binary payload buffer, as done when Unity reads a
+     * BinaryPayloadCallback, and returns the length of the payload.
+     */
+    static int productDetailsResultToBinary(int requestId, long generation,
+            BillingResult billingResult, List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        try {
+            int payloadId = (int) ADD_BINARY_PRODUCT_DETAILS.invokeExact(requestId, generation,
+                    billingResult, productDetailsList, unfetchedProductList);
+            return (int) ENCODE_BINARY_PAYLOAD.invokeExact(payloadId);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    /**
+     * Encodes the purchases into the binary payload buffer and returns the length of the payload.
+     */
+    static int purchasesResponseResultToBinary(BillingResult billingResult,
+            List<Purchase> purchases) {
+        try {
+            int payloadId = (int) ADD_BINARY_PURCHASES.invokeExact(KIND_PURCHASES_RESPONSE,
+                    billingResult, purchases);
+            return (int) ENCODE_BINARY_PAYLOAD.invokeExact(payloadId);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static ProductDetails getProductDetailsFromProductId(String productId) {
+        try {
+            return (ProductDetails) GET_PRODUCT_DETAILS_FROM_PRODUCT_ID.invokeExact(productId);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static void sendUnityMessage(String methodName, String payload) {
+        try {
+            SEND_UNITY_MESSAGE.invokeExact(methodName, payload);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    static PurchasesUpdatedListener getPurchasesUpdatedListener() {
+        return (PurchasesUpdatedListener) getStaticField("purchasesUpdatedListener");
+    }
+
+    static PurchasesResponseListener getPurchasesResponseListener() {
+        return (PurchasesResponseListener) getStaticField("purchasesResponseListener");
+    }
+
+    static ConsumeResponseListener getConsumeResponseListener() {
+        return (ConsumeResponseListener) getStaticField("consumeResponseListener");
+    }
+
+    static AptoideBillingClientStateListener getBillingClientStateListener() {
+        return (AptoideBillingClientStateListener) getStaticField(
+                "aptoideBillingClientStateListener");
+    }
+
+    /**
+     * Delivers a product details result to the bridge as if the query scheduler had completed the
+     * request with the given id.
+     */
+    static void onProductDetailsResult(int requestId, BillingResult billingResult,
+            List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        try {
+            ON_PRODUCT_DETAILS_RESULT.invokeExact(requestId, System.nanoTime(), billingResult,
+                    productDetailsList, unfetchedProductList);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    private static Class<?> loadBridge() {
+        try {
+            return Class.forName("AptoideBillingSDKUnityBridge");
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static MethodHandle findStatic(String name, Class<?>... parameterTypes) {
+        try {
+            Method method = BRIDGE.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Returns a handle that calls {@code ProductDetailsQueryScheduler.ResultListener.onResult} on
+     * the listener of the bridge, taking the same parameters.
+     */
+    private static MethodHandle findProductDetailsResult() {
+        try {
+            Class<?> listenerClass = Class.forName("ProductDetailsQueryScheduler$ResultListener");
+            Method method = listenerClass.getDeclaredMethod("onResult", int.class, long.class,
+                    BillingResult.class, List.class, List.class);
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method)
+                    .bindTo(getStaticField("productDetailsResultListener"))
+                    .asType(MethodType.methodType(void.class, int.class, long.class,
+                            BillingResult.class, List.class, List.class));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Returns a handle that calls a method of the binary payloads of the bridge.
+     */
+    private static MethodHandle findBinaryPayloads(String name, Class<?>... parameterTypes) {
+        try {
+            Class<?> binaryPayloadsClass = Class.forName("BridgeBinaryPayloads");
+            Method method = binaryPayloadsClass.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method).bindTo(getStaticField("binaryPayloads"));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static Object getBinaryPayloadsConstant(String name) {
+        try {
+            Field field = Class.forName("BridgeBinaryPayloads").getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static Object getStaticField(String name) {
+        try {
+            Field field = BRIDGE.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return new IllegalStateException(throwable);
+    }
+}
@@ -0,0 +1,87 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.PurchasesUpdatedListener;
+import com.unity3d.player.UnityPlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivery of callbacks to Unity, sent one by one with UnitySendMessage or queued and drained
+ * with pollEvents, as Unity does once per frame.
+ *
+ * <p>With event batching, the queue is drained every {@link #EVENTS_PER_FRAME} events, so the
+ * cost of the drain is spread over the events of a frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CallbackDispatchBenchmark {
+    static final int EVENTS_PER_FRAME = 16;
+
+    @Param({"false", "true"})
+    boolean eventBatching;
+
+    private String consumePayload;
+    private BillingResult billingResult;
+    private List<Purchase> purchases;
+    private PurchasesUpdatedListener purchasesUpdatedListener;
+    private int pendingEvents = 0;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        BridgeAccess.initialize(FakeBillingClient.factory(Collections.emptyList(),
+                Collections.emptyList()), Runnable::run);
+        BridgeAccess.awaitBackgroundWork();
+        UnityPlayer.messageSink = (gameObject, methodName, message) -> blackhole.consume(message);
+        BridgeAccess.setEventBatchingEnabled(eventBatching);
+        billingResult = Fixtures.ok();
+        purchases = Collections.singletonList(Fixtures.purchase(0, Fixtures.INAPP));
+        consumePayload = "{\"BillingResult\":{\"ResponseCode\":0,\"DebugMessage\":\"\"},"
+                + "\"PurchaseToken\":\"" + purchases.get(0).getPurchaseToken() + "\"}";
+        purchasesUpdatedListener = BridgeAccess.getPurchasesUpdatedListener();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BridgeAccess.shutdown();
+    }
+
+    @Benchmark
+    public void sendUnityMessage(Blackhole blackhole) {
+        BridgeAccess.sendUnityMessage("ConsumeResponseCallback", consumePayload);
+        endEvent(blackhole);
+    }
+
+    @Benchmark
+    public void purchasesUpdated(Blackhole blackhole) {
+        purchasesUpdatedListener.onPurchasesUpdated(billingResult, purchases);
+        endEvent(blackhole);
+    }
+
+    private void endEvent(Blackhole blackhole) {
+        if (eventBatching && ++pendingEvents == EVENTS_PER_FRAME) {
+            pendingEvents = 0;
+            blackhole.consume(BridgeAccess.pollEvents());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import android.app.Activity;
+import android.content.Context;
+import com.aptoide.sdk.billing.AptoideBillingClient;
+import com.aptoide.sdk.billing.BillingFlowParams;
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ConsumeParams;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.ProductDetailsResponseListener;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.PurchasesResponseListener;
+import com.aptoide.sdk.billing.QueryProductDetailsParams;
+import com.aptoide.sdk.billing.QueryProductDetailsResult;
+import com.aptoide.sdk.billing.QueryPurchasesParams;
+import com.aptoide.sdk.billing.ReferralDeeplink;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
+import com.aptoide.sdk.billing.listeners.ConsumeResponseListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Billing client that answers every call immediately on the calling thread, from a fixed catalog
+ * and purchase history, so that benchmarks measure only the bridge.
+ */
+class FakeBillingClient extends AptoideBillingClient {
+    private final Map<String, ProductDetails> catalog = new HashMap<>();
+    private final List<Purchase> purchases;
+    private volatile boolean ready = false;
+
+    FakeBillingClient(List<ProductDetails> catalog, List<Purchase> purchases) {
+        for (ProductDetails productDetails : catalog) {
+            this.catalog.put(productDetails.getProductId(), productDetails);
+        }
+        this.purchases = purchases;
+    }
+
+    static AptoideBillingClient.Factory factory(List<ProductDetails> catalog,
+            List<Purchase> purchases) {
+        return (context, listener, publicKey) ->
+                new FakeBillingClient(catalog, purchases);
+    }
+
+    @Override
+    public void startConnection(AptoideBillingClientStateListener listener) {
+        ready = true;
+        listener.onBillingSetupFinished(Fixtures.ok());
+    }
+
+    @Override
+    public void endConnection() {
+        ready = false;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void queryProductDetailsAsync(QueryProductDetailsParams params,
+            ProductDetailsResponseListener listener) {
+        List<ProductDetails> productDetailsList = new ArrayList<>();
+        List<UnfetchedProduct> unfetchedProductList = new ArrayList<>();
+        for (QueryProductDetailsParams.Product product : params.getProductList()) {
+            ProductDetails productDetails = catalog.get(product.getProductId());
+            if (productDetails != null) {
+                productDetailsList.add(productDetails);
+            } else {
+                unfetchedProductList.add(new UnfetchedProduct(product.getProductId(),
+                        product.getProductType(), 4));
+            }
+        }
+        listener.onProductDetailsResponse(Fixtures.ok(),
+                new QueryProductDetailsResult(productDetailsList, unfetchedProductList));
+    }
+
+    @Override
+    public BillingResult launchBillingFlow(Activity activity, BillingFlowParams params) {
+        return Fixtures.ok();
+    }
+
+    @Override
+    public void consumeAsync(ConsumeParams params, ConsumeResponseListener listener) {
+        listener.onConsumeResponse(Fixtures.ok(), params.getPurchaseToken());
+    }
+
+    @Override
+    public BillingResult isFeatureSupported(int feature) {
+        return Fixtures.ok();
+    }
+
+    @Override
+    public void queryPurchasesAsync(QueryPurchasesParams params,
+            PurchasesResponseListener listener) {
+        listener.onQueryPurchasesResponse(Fixtures.ok(), purchases);
+    }
+
+    @Override
+    public ReferralDeeplink getReferralDeeplink() {
+        return new ReferralDeeplink(Fixtures.ok(), "aptoide://referral", "https://aptoide.com");
+    }
+
+    @Override
+    public boolean isAppUpdateAvailable() {
+        return false;
+    }
+
+    @Override
+    public void launchAppUpdateDialog(Context context) {
+    }
+
+    @Override
+    public void launchAppUpdateStore(Context context) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic catalogs and purchase histories shaped like real Aptoide responses.
+ */
+final class Fixtures {
+    static final String INAPP = "inapp";
+    static final String SUBS = "subs";
+    static final String PACKAGE_NAME = "com.aptoide.unitybilling.sample";
+
+    // Same length as a real base64 SHA256withRSA signature
+    private static final String SIGNATURE = repeat("dGhpc2lzYXNpZ25hdHVyZQ", 16);
+
+    private Fixtures() {
+    }
+
+    static BillingResult ok() {
+        return BillingResult.newBuilder().setResponseCode(0).setDebugMessage("").build();
+    }
+
+    static BillingResult error(int responseCode, String debugMessage) {
+        return BillingResult.newBuilder()
+                .setResponseCode(responseCode)
+                .setDebugMessage(debugMessage)
+                .build();
+    }
+
+    static String productId(int index) {
+        return String.format(Locale.ROOT, "com.aptoide.sample.product_%05d", index);
+    }
+
+    static List<String> productIds(int count) {
+        List<String> productIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            productIds.add(productId(i));
+        }
+        return productIds;
+    }
+
+    // Type of the product at the given index of the catalog
+    static String productType(int index) {
+        return index % 4 == 3 ? SUBS : INAPP;
+    }
+
+    /**
+     * Returns {@code count} products, every fourth one a subscription with a free trial and an
+     * introductory phase.
+     */
+    static List<ProductDetails> catalog(int count) {
+        List<ProductDetails> productDetailsList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            productDetailsList.add(productDetails(productId(i), productType(i), i));
+        }
+        return productDetailsList;
+    }
+
+    static ProductDetails productDetails(String productId, String productType, int index) {
+        long priceMicros = (99 + index % 50 * 100) * 10_000L;
+        String title = "Gem pack " + index + " (Sample Game)";
+        String description = "A pack of " + (index + 1) * 10
+                + " gems to spend in the shop of the sample game.";
+        if (INAPP.equals(productType)) {
+            return new ProductDetails(productId, productType, title, description,
+                    new ProductDetails.OneTimePurchaseOfferDetails(price(priceMicros)), null);
+        }
+        List<ProductDetails.PricingPhase> pricingPhases = Arrays.asList(
+                new ProductDetails.PricingPhase("P1W", price(0)),
+                new ProductDetails.PricingPhase("P1M", price(priceMicros / 2)),
+                new ProductDetails.PricingPhase("P1M", price(priceMicros)));
+        ProductDetails.SubscriptionOfferDetails offerDetails =
+                new ProductDetails.SubscriptionOfferDetails(
+                        new ProductDetails.PricingPhases(pricingPhases),
+                        new ProductDetails.TrialDetails("P1W", "2026-12-31T23:59:59Z"));
+        return new ProductDetails(productId, productType, title, description, null,
+                Collections.singletonList(offerDetails));
+    }
+
+    static ProductDetails.Price price(long priceMicros) {
+        String amount = String.format(Locale.ROOT, "%.2f", priceMicros / 1_000_000.0);
+        return new ProductDetails.Price("\u20ac" + amount, priceMicros, "EUR",
+                amount + " APPC", priceMicros * 40, "APPC",
+                "$" + amount, priceMicros * 108 / 100, "USD");
+    }
+
+    static List<UnfetchedProduct> unfetched(int count, String productType) {
+        List<UnfetchedProduct> unfetchedProductList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            unfetchedProductList.add(new UnfetchedProduct("com.aptoide.sample.unknown_" + i,
+                    productType, 4));
+        }
+        return unfetchedProductList;
+    }
+
+    static List<Purchase> purchases(int count) {
+        List<Purchase> purchases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            purchases.add(purchase(i, INAPP));
+        }
+        return purchases;
+    }
+
+    static Purchase purchase(int index, String productType) {
+        String productId = productId(index);
+        String orderId = String.format(Locale.ROOT, "catappult.inapp.gp.%012d", index);
+        String purchaseToken = String.format(Locale.ROOT, "catappult.inapp.gp.token.%012d",
+                index);
+        long purchaseTime = 1_760_000_000_000L + index * 60_000L;
+        boolean autoRenewing = SUBS.equals(productType);
+        String originalJson = "{\"orderId\":\"" + orderId + "\",\"packageName\":\"" + PACKAGE_NAME
+                + "\",\"productId\":\"" + productId + "\",\"purchaseTime\":" + purchaseTime
+                + ",\"purchaseState\":0,\"purchaseToken\":\"" + purchaseToken
+                + "\",\"autoRenewing\":" + autoRenewing + ",\"developerPayload\":\"level="
+                + index % 30 + "\"}";
+        return new Purchase(new Purchase.AccountIdentifiers("player-" + index % 1000),
+                "level=" + index % 30, orderId, originalJson, PACKAGE_NAME,
+                Collections.singletonList(productId), 0, purchaseTime, purchaseToken, SIGNATURE,
+                autoRenewing);
+    }
+
+    private static String repeat(String value, int times) {
+        StringBuilder builder = new StringBuilder(value.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
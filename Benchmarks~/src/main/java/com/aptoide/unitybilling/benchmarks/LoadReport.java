@@ -0,0 +1,287 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a load simulation from the callbacks the bridge sends to Unity: throughput, end-to-end
+ * latency, queueing delay, peak heap and GC.
+ *
+ * <p>Each request is registered when it is issued, under the key its callback can be matched
+ * with: the request id of a product details query, the token of a consume, or the product type
+ * of a purchases query, matched in order. The end-to-end latency of a request runs until its
+ * callback is sent, and its queueing delay is that latency minus the simulated service latency of
+ * the response that completed it, that is, the time it spent waiting in the bridge: for a chunk,
+ * a connection or a consume slot.
+ */
+class LoadReport {
+    private static final long HEAP_SAMPLE_INTERVAL_MILLIS = 10;
+    private static final String RESPONSE_CODE = "\"ResponseCode\":";
+
+    private final String scenario;
+    private final Map<String, Long> issuedAt = new ConcurrentHashMap<>();
+    private final Map<String, long[]> completedBeforeIssued = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentLinkedQueue<Long>> issuedInOrder =
+            new ConcurrentHashMap<>();
+    private final Map<String, Integer> callbacks = new TreeMap<>();
+    private final Map<String, Object> details = new LinkedHashMap<>();
+    private final Samples latencies = new Samples();
+    private final Samples queueingDelays = new Samples();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ScheduledExecutorService heapSampler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "heap-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private int requests = 0;
+    private int failedCallbacks = 0;
+    private long payloadChars = 0;
+    private volatile long peakHeapBytes = 0;
+    private long startNanos;
+    private long endNanos;
+    private long startGcCount;
+    private long startGcMillis;
+    private long gcCount;
+    private long gcMillis;
+
+    LoadReport(String scenario) {
+        this.scenario = scenario;
+    }
+
+    void start() {
+        System.gc();
+        startGcCount = getGcCount();
+        startGcMillis = getGcMillis();
+        heapSampler.scheduleAtFixedRate(this::sampleHeap, 0, HEAP_SAMPLE_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        startNanos = System.nanoTime();
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        heapSampler.shutdownNow();
+        sampleHeap();
+        gcCount = getGcCount() - startGcCount;
+        gcMillis = getGcMillis() - startGcMillis;
+    }
+
+    /**
+     * Registers a request, issued at {@code issuedAtNanos}, whose callback carries {@code key}.
+     * The key may only be known once the request is issued, so its callback may already have
+     * been sent.
+     */
+    synchronized void issued(String key, long issuedAtNanos) {
+        requests++;
+        long[] completion = completedBeforeIssued.remove(key);
+        if (completion != null) {
+            addSample(completion[0] - issuedAtNanos, completion[1]);
+        } else {
+            issuedAt.put(key, issuedAtNanos);
+        }
+    }
+
+    /**
+     * Registers a request whose callback carries nothing to match it with but comes after the
+     * callbacks of the requests issued before it with the same {@code key}.
+     */
+    synchronized void issuedInOrder(String key) {
+        requests++;
+        issuedInOrder.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>())
+                .add(System.nanoTime());
+    }
+
+    /**
+     * Accounts for a callback sent to Unity. Called on the thread sending it.
+     */
+    void onCallback(String methodName, String payload) {
+        long now = System.nanoTime();
+        long serviceNanos = SimulatedBillingClient.currentServiceNanos();
+        String key = null;
+        Long requestIssuedAt = null;
+        switch (methodName) {
+            case "ProductDetailsResponseCallback":
+                key = "request:" + extractValue(payload, "\"RequestId\":", true);
+                break;
+            case "ConsumeResponseCallback":
+                key = "consume:" + extractValue(payload, "\"PurchaseToken\":\"", false);
+                break;
+            case "PurchasesResponseCallback":
+                ConcurrentLinkedQueue<Long> queue = issuedInOrder.get("purchases");
+                requestIssuedAt = queue == null ? null : queue.poll();
+                break;
+            default:
+                break;
+        }
+        if (key != null) {
+            synchronized (this) {
+                requestIssuedAt = issuedAt.remove(key);
+                if (requestIssuedAt == null) {
+                    completedBeforeIssued.put(key, new long[]{now, serviceNanos});
+                }
+            }
+        }
+        if (requestIssuedAt != null) {
+            addSample(now - requestIssuedAt, serviceNanos);
+        }
+        boolean failed = isFailure(payload);
+        synchronized (this) {
+            callbacks.merge(methodName, 1, Integer::sum);
+            payloadChars += payload.length();
+            if (failed) {
+                failedCallbacks++;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Adds a line to the report, for a value measured by the scenario itself.
+     */
+    synchronized void addDetail(String name, Object value) {
+        details.put(name, value);
+    }
+
+    /**
+     * Waits until {@code count} callbacks of the method were sent, and returns false if that did
+     * not happen within the timeout.
+     */
+    synchronized boolean await(String methodName, int count, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (getCallbacks(methodName) < count) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        return true;
+    }
+
+    synchronized int getCallbacks(String methodName) {
+        return callbacks.getOrDefault(methodName, 0);
+    }
+
+    synchronized void print(PrintStream out, String connectionMetrics) {
+        double seconds = (endNanos - startNanos) / 1e9;
+        int totalCallbacks = 0;
+        for (int count : callbacks.values()) {
+            totalCallbacks += count;
+        }
+        out.printf("Scenario: %s%n", scenario);
+        out.printf("  Duration:            %.3f s%n", seconds);
+        out.printf("  Requests:            %d%n", requests);
+        out.printf("  Callbacks:           %d (%d failed), %.1f/s, %.1f MB of payload%n",
+                totalCallbacks, failedCallbacks, totalCallbacks / seconds, payloadChars / 1e6);
+        for (Map.Entry<String, Integer> entry : callbacks.entrySet()) {
+            out.printf("    %-34s %d%n", entry.getKey(), entry.getValue());
+        }
+        out.printf("  Completed requests:  %d, %.1f/s%n", latencies.size(),
+                latencies.size() / seconds);
+        out.printf("  End-to-end latency:  %s%n", latencies.describe());
+        out.printf("  Queueing delay:      %s%n", queueingDelays.describe());
+        out.printf("  Peak heap used:      %.1f MB (sampled every %d ms)%n",
+                peakHeapBytes / (1024.0 * 1024.0), HEAP_SAMPLE_INTERVAL_MILLIS);
+        out.printf("  GC:                  %d collections, %d ms%n", gcCount, gcMillis);
+        for (Map.Entry<String, Object> detail : details.entrySet()) {
+            out.printf("  %-20s %s%n", detail.getKey() + ":", detail.getValue());
+        }
+        out.printf("  Connection:          %s%n", connectionMetrics);
+    }
+
+    private void addSample(long latencyNanos, long serviceNanos) {
+        latencies.add(latencyNanos);
+        queueingDelays.add(Math.max(0, latencyNanos - serviceNanos));
+    }
+
+    private void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        if (used > peakHeapBytes) {
+            peakHeapBytes = used;
+        }
+    }
+
+    private static boolean isFailure(String payload) {
+        int start = payload.indexOf(RESPONSE_CODE);
+        if (start < 0) {
+            return false;
+        }
+        start += RESPONSE_CODE.length();
+        return payload.charAt(start) != '0' || Character.isDigit(payload.charAt(start + 1));
+    }
+
+    private static String extractValue(String payload, String prefix, boolean number) {
+        int start = payload.lastIndexOf(prefix);
+        if (start < 0) {
+            return "";
+        }
+        start += prefix.length();
+        int end = start;
+        while (end < payload.length() && (number ? Character.isDigit(payload.charAt(end))
+                : payload.charAt(end) != '"')) {
+            end++;
+        }
+        return payload.substring(start, end);
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static class Samples {
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized String describe() {
+            if (size == 0) {
+                return "no samples";
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return String.format("p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90),
+                    percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int rank = (int) Math.ceil(sorted.length * percentile);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
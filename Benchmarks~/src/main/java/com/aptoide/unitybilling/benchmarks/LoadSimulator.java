@@ -0,0 +1,275 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.Purchase;
+import com.unity3d.player.UnityPlayer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the bridge end to end against a {@link SimulatedBillingClient} with production traffic
+ * shapes, or replays a recorded callback trace through it, and prints a {@link LoadReport}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.aptoide.unitybilling.benchmarks.LoadSimulator \
+ *         &lt;scenario&gt; [--option value]...
+ * </pre>
+ *
+ * <p>Scenarios:
+ * <ul>
+ * <li>{@code restore-storm}: queries a history of {@code --purchases} (5000) purchases and
+ * consumes all of them in one batch.</li>
+ * <li>{@code reconnect-flapping}: for {@code --duration-s} (30) seconds, queries 5 products every
+ * {@code --interval-ms} (100) milliseconds and the purchases every second, while the service
+ * drops the connection every {@code --disconnect-every-ms} (3000) milliseconds.</li>
+ * <li>{@code catalog-storm}: {@code --queries} (200) threads query 20 products each, of mixed
+ * types, out of a catalog of 1000 at the same time.</li>
+ * <li>{@code replay}: replays the trace given with {@code --trace} {@code --repeat} (1) times.
+ * </li>
+ * </ul>
+ *
+ * <p>The simulated service is configured with {@code --seed} (1), {@code --min-latency-ms} (2),
+ * {@code --max-latency-ms} (8), {@code --connect-latency-ms} (50) and {@code --failure-rate} (0).
+ * {@code --record} writes the callbacks of a scenario to a trace that {@code replay} accepts.
+ */
+public final class LoadSimulator {
+    private static final long SETUP_TIMEOUT_MILLIS = 10_000;
+    // Long enough for operations waiting on a connection to reach their deadline
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+
+    private final Map<String, String> options;
+    private final SimulatedBillingClient.Config config = new SimulatedBillingClient.Config();
+    private final ExecutorService uiThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ui-thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LoadSimulator(Map<String, String> options) {
+        this.options = options;
+        config.seed = getLong("seed", config.seed);
+        config.minLatencyMillis = getLong("min-latency-ms", config.minLatencyMillis);
+        config.maxLatencyMillis = getLong("max-latency-ms", config.maxLatencyMillis);
+        config.connectLatencyMillis = getLong("connect-latency-ms", config.connectLatencyMillis);
+        config.failureRate = Double.parseDouble(options.getOrDefault("failure-rate",
+                Double.toString(config.failureRate)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadSimulator <restore-storm|reconnect-flapping|"
+                    + "catalog-storm|replay> [--option value]...");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Not an option: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        LoadSimulator simulator = new LoadSimulator(options);
+        try {
+            switch (args[0]) {
+                case "restore-storm":
+                    simulator.restoreStorm();
+                    break;
+                case "reconnect-flapping":
+                    simulator.reconnectFlapping();
+                    break;
+                case "catalog-storm":
+                    simulator.catalogStorm();
+                    break;
+                case "replay":
+                    simulator.replay();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown scenario: " + args[0]);
+            }
+        } finally {
+            BridgeAccess.shutdown();
+        }
+    }
+
+    private void restoreStorm() throws InterruptedException {
+        int purchaseCount = (int) getLong("purchases", 5000);
+        List<Purchase> purchases = Fixtures.purchases(purchaseCount);
+        SimulatedBillingClient client = new SimulatedBillingClient(config,
+                Fixtures.catalog(100), purchases);
+        LoadReport report = start("restore-storm", client);
+
+        report.issuedInOrder("purchases");
+        BridgeAccess.queryPurchasesAsync(Fixtures.INAPP);
+        await(report, "PurchasesResponseCallback", 1);
+        List<String> purchaseTokens = new ArrayList<>(purchaseCount);
+        long issuedAt = System.nanoTime();
+        for (Purchase purchase : purchases) {
+            purchaseTokens.add(purchase.getPurchaseToken());
+            report.issued("consume:" + purchase.getPurchaseToken(), issuedAt);
+        }
+        BridgeAccess.consumeBatchAsync(purchaseTokens);
+        await(report, "ConsumeBatchResponseCallback", 1);
+        finish(report, client);
+    }
+
+    private void reconnectFlapping() throws InterruptedException {
+        config.disconnectIntervalMillis = getLong("disconnect-every-ms", 3000);
+        long durationMillis = TimeUnit.SECONDS.toMillis(getLong("duration-s", 30));
+        long intervalMillis = getLong("interval-ms", 100);
+        SimulatedBillingClient client = new SimulatedBillingClient(config,
+                Fixtures.catalog(200), Fixtures.purchases(20));
+        LoadReport report = start("reconnect-flapping", client);
+
+        Random random = new Random(config.seed);
+        long startMillis = System.currentTimeMillis();
+        long nextPurchasesQueryMillis = startMillis;
+        int productDetailsQueries = 0;
+        int purchasesQueries = 0;
+        while (System.currentTimeMillis() - startMillis < durationMillis) {
+            List<String> productIds = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                productIds.add(Fixtures.productId(random.nextInt(200)));
+            }
+            queryProductDetails(report, productIds);
+            productDetailsQueries++;
+            if (System.currentTimeMillis() >= nextPurchasesQueryMillis) {
+                report.issuedInOrder("purchases");
+                BridgeAccess.queryPurchasesAsync(Fixtures.INAPP);
+                purchasesQueries++;
+                nextPurchasesQueryMillis += 1000;
+            }
+            Thread.sleep(intervalMillis);
+        }
+        await(report, "ProductDetailsResponseCallback", productDetailsQueries);
+        await(report, "PurchasesResponseCallback", purchasesQueries);
+        finish(report, client);
+    }
+
+    private void catalogStorm() throws InterruptedException {
+        int queries = (int) getLong("queries", 200);
+        SimulatedBillingClient client = new SimulatedBillingClient(config,
+                Fixtures.catalog(1000), Collections.emptyList());
+        LoadReport report = start("catalog-storm", client);
+
+        CountDownLatch ready = new CountDownLatch(queries);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < queries; i++) {
+            Random random = new Random(config.seed * 31 + i);
+            List<String> productIds = new ArrayList<>();
+            List<String> productTypes = new ArrayList<>();
+            for (int j = 0; j < 20; j++) {
+                int product = random.nextInt(1000);
+                productIds.add(Fixtures.productId(product));
+                productTypes.add(Fixtures.productType(product));
+            }
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                long issuedAt = System.nanoTime();
+                int requestId = BridgeAccess.queryProductDetailsAsync(productIds, productTypes);
+                report.issued("request:" + requestId, issuedAt);
+            }, "game-thread-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        ready.await();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        await(report, "ProductDetailsResponseCallback", queries);
+        finish(report, client);
+    }
+
+    private void replay() throws Exception {
+        String trace = options.get("trace");
+        if (trace == null) {
+            throw new IllegalArgumentException("replay needs --trace <file>");
+        }
+        int repeat = (int) getLong("repeat", 1);
+        LoadReport report = new LoadReport("replay " + trace + " x" + repeat);
+        BridgeAccess.initialize(FakeBillingClient.factory(Collections.emptyList(),
+                Collections.emptyList()), uiThread);
+        BridgeAccess.awaitBackgroundWork();
+        TraceReplayer replayer = new TraceReplayer();
+        replayer.load(new File(trace));
+        System.out.printf("Replaying %d callbacks, skipped: %s%n", replayer.getEventCount(),
+                replayer.getSkippedCallbacks());
+        UnityPlayer.messageSink = (gameObject, methodName, message) ->
+                report.onCallback(methodName, message);
+
+        report.start();
+        for (int i = 0; i < repeat; i++) {
+            replayer.replay();
+        }
+        BridgeAccess.awaitBackgroundWork();
+        report.finish();
+        report.print(System.out, BridgeAccess.getConnectionMetrics());
+    }
+
+    /**
+     * Initializes the bridge against the client, waits for the connection and starts measuring.
+     */
+    private LoadReport start(String scenario, SimulatedBillingClient client)
+            throws InterruptedException {
+        LoadReport report = new LoadReport(scenario);
+        UnityPlayer.messageSink = (gameObject, methodName, message) ->
+                report.onCallback(methodName, message);
+        String trace = options.get("record");
+        if (trace != null) {
+            BridgeAccess.startCallbackTrace(new File(trace).getAbsolutePath());
+        }
+        BridgeAccess.initialize(SimulatedBillingClient.factory(client), uiThread);
+        if (!report.await("BillingSetupFinishedCallback", 1, SETUP_TIMEOUT_MILLIS)) {
+            throw new IllegalStateException("The billing setup did not finish.");
+        }
+        BridgeAccess.awaitBackgroundWork();
+        report.start();
+        return report;
+    }
+
+    private void finish(LoadReport report, SimulatedBillingClient client) {
+        report.finish();
+        report.addDetail("Service connections", client.getConnectionCount());
+        String trace = BridgeAccess.stopCallbackTrace();
+        report.print(System.out, BridgeAccess.getConnectionMetrics());
+        if (!trace.isEmpty()) {
+            System.out.printf("Callback trace: %s%n", trace);
+        }
+        BridgeAccess.endConnection();
+        client.shutdown();
+    }
+
+    private static void queryProductDetails(LoadReport report, List<String> productIds) {
+        long issuedAt = System.nanoTime();
+        int requestId = BridgeAccess.queryProductDetailsAsync(productIds, Fixtures.INAPP);
+        report.issued("request:" + requestId, issuedAt);
+    }
+
+    private static void await(LoadReport report, String methodName, int count)
+            throws InterruptedException {
+        if (!report.await(methodName, count, DRAIN_TIMEOUT_MILLIS)) {
+            System.out.printf("Timed out waiting for %d %s, got %d.%n", count, methodName,
+                    report.getCallbacks(methodName));
+        }
+    }
+
+    private long getLong(String name, long defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the ProductDetailsResponseCallback payload, as JSON with the streaming writer
+ * ({@code streaming}) or the org.json tree ({@code tree}), and as a binary payload
+ * ({@code binary}). Each call returns the length of the payload, in chars for JSON and in bytes for
+ * the binary payload.
+ *
+ * <p>The same products are serialized every time, as in a catalog refresh where nothing changed,
+ * so the streaming writer splices the fragments it cached for them; catalogs larger than the
+ * fragment cache render some products on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductDetailsSerializationBenchmark {
+    @Param({"10", "100", "500"})
+    int catalogSize;
+
+    @Param({"streaming", "tree", "binary"})
+    String format;
+
+    private boolean binary;
+
+    private BillingResult billingResult;
+    private List<ProductDetails> productDetailsList;
+    private List<UnfetchedProduct> unfetchedProductList;
+
+    @Setup
+    public void setUp() {
+        BridgeAccess.setStreamingJsonSerializerEnabled("streaming".equals(format));
+        binary = "binary".equals(format);
+        billingResult = Fixtures.ok();
+        productDetailsList = Fixtures.catalog(catalogSize);
+        unfetchedProductList = Fixtures.unfetched(2, Fixtures.INAPP);
+    }
+
+    @Benchmark
+    public int serializeProductDetailsResult() {
+        if (binary) {
+            return BridgeAccess.productDetailsResultToBinary(1, 1, billingResult,
+                    productDetailsList, unfetchedProductList);
+        }
+        return BridgeAccess.productDetailsResultToJson(1, 1, billingResult, productDetailsList,
+                unfetchedProductList).length();
+    }
+}
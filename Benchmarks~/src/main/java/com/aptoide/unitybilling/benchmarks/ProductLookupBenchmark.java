@@ -0,0 +1,70 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.ProductDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of fetched product details by product id, as done by every launchBillingFlow call. The
+ * catalog is fetched through the bridge before measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductLookupBenchmark {
+    @Param({"100", "1000", "10000"})
+    int catalogSize;
+
+    private String[] productIds;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        List<ProductDetails> catalog = Fixtures.catalog(catalogSize);
+        BridgeAccess.initialize(FakeBillingClient.factory(catalog, Collections.emptyList()),
+                Runnable::run);
+        // New strings, as the ids come from Unity and are not the instances the store keys on
+        productIds = Fixtures.productIds(catalogSize).toArray(new String[0]);
+        BridgeAccess.queryProductDetailsAsync(Fixtures.productIds(catalogSize), Fixtures.INAPP);
+        BridgeAccess.awaitBackgroundWork();
+        for (String productId : productIds) {
+            if (BridgeAccess.getProductDetailsFromProductId(productId) == null) {
+                throw new IllegalStateException("Product not fetched: " + productId);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        BridgeAccess.shutdown();
+    }
+
+    @Benchmark
+    public ProductDetails hit() {
+        String productId = productIds[next];
+        next = next + 1 == productIds.length ? 0 : next + 1;
+        return BridgeAccess.getProductDetailsFromProductId(productId);
+    }
+
+    @Benchmark
+    public ProductDetails miss() {
+        return BridgeAccess.getProductDetailsFromProductId("com.aptoide.sample.not_in_catalog");
+    }
+}
@@ -0,0 +1,58 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.Purchase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the PurchasesResponseCallback payload over purchase histories of different
+ * sizes, as JSON with the streaming writer or the org.json tree and as a binary payload. Each call
+ * returns the length of the payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PurchasesSerializationBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    int historySize;
+
+    @Param({"streaming", "tree", "binary"})
+    String format;
+
+    private boolean binary;
+
+    private BillingResult billingResult;
+    private List<Purchase> purchases;
+
+    @Setup
+    public void setUp() {
+        BridgeAccess.setStreamingJsonSerializerEnabled("streaming".equals(format));
+        binary = "binary".equals(format);
+        billingResult = Fixtures.ok();
+        purchases = Fixtures.purchases(historySize);
+    }
+
+    @Benchmark
+    public int serializePurchasesResponseResult() {
+        if (binary) {
+            return BridgeAccess.purchasesResponseResultToBinary(billingResult, purchases);
+        }
+        return BridgeAccess.purchasesResponseResultToJson(billingResult, purchases).length();
+    }
+}
@@ -0,0 +1,307 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import android.app.Activity;
+import android.content.Context;
+import com.aptoide.sdk.billing.AptoideBillingClient;
+import com.aptoide.sdk.billing.BillingFlowParams;
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ConsumeParams;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.ProductDetailsResponseListener;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.PurchasesResponseListener;
+import com.aptoide.sdk.billing.QueryProductDetailsParams;
+import com.aptoide.sdk.billing.QueryProductDetailsResult;
+import com.aptoide.sdk.billing.QueryPurchasesParams;
+import com.aptoide.sdk.billing.ReferralDeeplink;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
+import com.aptoide.sdk.billing.listeners.ConsumeResponseListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Billing client backed by a simulated billing service, which answers on its own threads after a
+ * configurable latency, fails a configurable share of the calls and drops the connection at a
+ * fixed interval.
+ *
+ * <p>The latency and outcome of every call are drawn from the seed and the call itself (its kind,
+ * its key and how many times that key was called before), never from the order in which
+ * concurrent calls arrive, so that the same scenario and seed always get the same answers.
+ *
+ * <p>Calls made while disconnected, and calls still in flight when the connection drops, fail with
+ * SERVICE_DISCONNECTED like the real service. While a response is delivered,
+ * {@link #currentServiceNanos()} returns the latency it was given, so that the receiver can tell
+ * the time spent in the service from the time spent queued in the bridge.
+ */
+class SimulatedBillingClient extends AptoideBillingClient {
+    static final int RESPONSE_CODE_OK = 0;
+    static final int RESPONSE_CODE_SERVICE_DISCONNECTED = -1;
+    static final int RESPONSE_CODE_ERROR = 6;
+    static final int RESPONSE_CODE_ITEM_NOT_OWNED = 8;
+
+    private static final ThreadLocal<long[]> serviceNanos = ThreadLocal.withInitial(() ->
+            new long[1]);
+
+    static class Config {
+        long seed = 1;
+        long minLatencyMillis = 2;
+        long maxLatencyMillis = 8;
+        long connectLatencyMillis = 50;
+        double failureRate = 0;
+        long disconnectIntervalMillis = 0;
+        int serviceThreads = 4;
+    }
+
+    private final Config config;
+    private final ScheduledExecutorService service;
+    private final Map<String, ProductDetails> catalog = new HashMap<>();
+    private final Map<String, Purchase> ownedPurchases = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile AptoideBillingClientStateListener stateListener;
+    private volatile boolean ready = false;
+    private volatile int connectionId = 0;
+    private ScheduledFuture<?> disconnectFuture;
+
+    SimulatedBillingClient(Config config, List<ProductDetails> catalog,
+            List<Purchase> ownedPurchases) {
+        this.config = config;
+        this.service = Executors.newScheduledThreadPool(config.serviceThreads, runnable -> {
+            Thread thread = new Thread(runnable, "simulated-billing-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (ProductDetails productDetails : catalog) {
+            this.catalog.put(productDetails.getProductId(), productDetails);
+        }
+        for (Purchase purchase : ownedPurchases) {
+            this.ownedPurchases.put(purchase.getPurchaseToken(), purchase);
+        }
+    }
+
+    static AptoideBillingClient.Factory factory(SimulatedBillingClient client) {
+        return (context, listener, publicKey) -> client;
+    }
+
+    /**
+     * Returns the simulated latency of the response being delivered on the calling thread, or 0
+     * if it is not delivering one.
+     */
+    static long currentServiceNanos() {
+        return serviceNanos.get()[0];
+    }
+
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    void shutdown() {
+        service.shutdownNow();
+    }
+
+    @Override
+    public synchronized void startConnection(AptoideBillingClientStateListener listener) {
+        stateListener = listener;
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(config.connectLatencyMillis);
+        service.schedule(() -> {
+            synchronized (this) {
+                if (stateListener != listener) {
+                    return;
+                }
+                if (!ready) {
+                    ready = true;
+                    connectionCount.incrementAndGet();
+                    if (config.disconnectIntervalMillis > 0) {
+                        disconnectFuture = service.schedule(this::disconnect,
+                                config.disconnectIntervalMillis, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            deliver(latencyNanos, () -> listener.onBillingSetupFinished(result(RESPONSE_CODE_OK)));
+        }, latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void endConnection() {
+        ready = false;
+        connectionId++;
+        stateListener = null;
+        if (disconnectFuture != null) {
+            disconnectFuture.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void queryProductDetailsAsync(QueryProductDetailsParams params,
+            ProductDetailsResponseListener listener) {
+        List<QueryProductDetailsParams.Product> products = params.getProductList();
+        String key = products.isEmpty() ? "" : products.get(0).getProductId() + "+"
+                + products.size();
+        call("queryProductDetails", key, billingResult -> {
+            List<ProductDetails> productDetailsList = new ArrayList<>();
+            List<UnfetchedProduct> unfetchedProductList = new ArrayList<>();
+            for (QueryProductDetailsParams.Product product : products) {
+                ProductDetails productDetails = billingResult.getResponseCode() == RESPONSE_CODE_OK
+                        ? catalog.get(product.getProductId()) : null;
+                if (productDetails != null) {
+                    productDetailsList.add(productDetails);
+                } else if (billingResult.getResponseCode() == RESPONSE_CODE_OK) {
+                    unfetchedProductList.add(new UnfetchedProduct(product.getProductId(),
+                            product.getProductType(), 4));
+                }
+            }
+            listener.onProductDetailsResponse(billingResult,
+                    new QueryProductDetailsResult(productDetailsList, unfetchedProductList));
+        });
+    }
+
+    @Override
+    public BillingResult launchBillingFlow(Activity activity, BillingFlowParams params) {
+        return result(ready ? RESPONSE_CODE_OK : RESPONSE_CODE_SERVICE_DISCONNECTED);
+    }
+
+    @Override
+    public void consumeAsync(ConsumeParams params, ConsumeResponseListener listener) {
+        String purchaseToken = params.getPurchaseToken();
+        call("consume", purchaseToken, billingResult -> {
+            if (billingResult.getResponseCode() == RESPONSE_CODE_OK
+                    && ownedPurchases.remove(purchaseToken) == null) {
+                billingResult = result(RESPONSE_CODE_ITEM_NOT_OWNED);
+            }
+            listener.onConsumeResponse(billingResult, purchaseToken);
+        });
+    }
+
+    @Override
+    public BillingResult isFeatureSupported(int feature) {
+        return result(RESPONSE_CODE_OK);
+    }
+
+    @Override
+    public void queryPurchasesAsync(QueryPurchasesParams params,
+            PurchasesResponseListener listener) {
+        String productType = params.getProductType();
+        call("queryPurchases", productType, billingResult -> {
+            List<Purchase> purchases = new ArrayList<>();
+            if (billingResult.getResponseCode() == RESPONSE_CODE_OK) {
+                for (Purchase purchase : ownedPurchases.values()) {
+                    if (purchase.isAutoRenewing() == Fixtures.SUBS.equals(productType)) {
+                        purchases.add(purchase);
+                    }
+                }
+            }
+            listener.onQueryPurchasesResponse(billingResult, purchases);
+        });
+    }
+
+    @Override
+    public ReferralDeeplink getReferralDeeplink() {
+        return new ReferralDeeplink(result(RESPONSE_CODE_OK), "aptoide://referral",
+                "https://aptoide.com");
+    }
+
+    @Override
+    public boolean isAppUpdateAvailable() {
+        return false;
+    }
+
+    @Override
+    public void launchAppUpdateDialog(Context context) {
+    }
+
+    @Override
+    public void launchAppUpdateStore(Context context) {
+    }
+
+    private interface Response {
+        void deliver(BillingResult billingResult);
+    }
+
+    /**
+     * Answers a call after its simulated latency, with an error if it was drawn to fail or the
+     * connection dropped in the meantime.
+     */
+    private void call(String kind, String key, Response response) {
+        int count = callCounts.computeIfAbsent(kind + ':' + key, k -> new AtomicInteger())
+                .getAndIncrement();
+        long hash = mix(config.seed ^ mix(kind.hashCode() * 31L + key.hashCode()) ^ count);
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(config.minLatencyMillis)
+                + (long) (toUnit(hash) * TimeUnit.MILLISECONDS.toNanos(
+                config.maxLatencyMillis - config.minLatencyMillis));
+        boolean failed = toUnit(mix(hash)) < config.failureRate;
+        if (!ready) {
+            service.execute(() -> deliver(0, () -> response.deliver(
+                    result(RESPONSE_CODE_SERVICE_DISCONNECTED))));
+            return;
+        }
+        int callConnectionId = connectionId;
+        service.schedule(() -> deliver(latencyNanos, () -> {
+            if (callConnectionId != connectionId) {
+                response.deliver(result(RESPONSE_CODE_SERVICE_DISCONNECTED));
+            } else if (failed) {
+                response.deliver(result(RESPONSE_CODE_ERROR));
+            } else {
+                response.deliver(result(RESPONSE_CODE_OK));
+            }
+        }), latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void disconnect() {
+        AptoideBillingClientStateListener listener;
+        synchronized (this) {
+            if (!ready) {
+                return;
+            }
+            ready = false;
+            connectionId++;
+            listener = stateListener;
+        }
+        if (listener != null) {
+            deliver(0, listener::onBillingServiceDisconnected);
+        }
+    }
+
+    private static void deliver(long latencyNanos, Runnable delivery) {
+        long[] current = serviceNanos.get();
+        current[0] = latencyNanos;
+        try {
+            delivery.run();
+        } finally {
+            current[0] = 0;
+        }
+    }
+
+    private static BillingResult result(int responseCode) {
+        return BillingResult.newBuilder()
+                .setResponseCode(responseCode)
+                .setDebugMessage(responseCode == RESPONSE_CODE_OK ? "" : "Simulated response.")
+                .build();
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static double toUnit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,228 @@
+package com.aptoide.unitybilling.benchmarks;
+
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.PurchasesResponseListener;
+import com.aptoide.sdk.billing.PurchasesUpdatedListener;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
+import com.aptoide.sdk.billing.listeners.ConsumeResponseListener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Replays a callback trace, recorded with {@code startCallbackTrace} on a device or by the load
+ * simulator, through the bridge at full speed.
+ *
+ * <p>Each callback that answers the billing SDK is decoded back into the SDK objects it was
+ * serialized from, and those are handed to the bridge listener that produced it, so that the
+ * replay runs the same bridge code as the recorded session: the connection callbacks, purchase
+ * updates and purchases, product details and consume responses. Every trace line is decoded
+ * before replaying, so that only the bridge is measured. Callbacks answering calls of the game
+ * itself, and binary payload ids, carry nothing to replay and are skipped.
+ */
+class TraceReplayer {
+    interface Event {
+        void replay();
+    }
+
+    private final List<Event> events = new ArrayList<>();
+    private final Map<String, Integer> skippedCallbacks = new TreeMap<>();
+
+    /**
+     * Decodes the trace. The bridge must already be initialized.
+     */
+    void load(File trace) throws IOException {
+        PurchasesUpdatedListener purchasesUpdatedListener =
+                BridgeAccess.getPurchasesUpdatedListener();
+        PurchasesResponseListener purchasesResponseListener =
+                BridgeAccess.getPurchasesResponseListener();
+        ConsumeResponseListener consumeResponseListener =
+                BridgeAccess.getConsumeResponseListener();
+        AptoideBillingClientStateListener stateListener =
+                BridgeAccess.getBillingClientStateListener();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(trace), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int methodStart = line.indexOf('\t') + 1;
+                int payloadStart = line.indexOf('\t', methodStart) + 1;
+                if (methodStart == 0 || payloadStart == 0) {
+                    continue;
+                }
+                String methodName = line.substring(methodStart, payloadStart - 1);
+                String payload = line.substring(payloadStart);
+                switch (methodName) {
+                    case "BillingSetupFinishedCallback": {
+                        BillingResult billingResult = toBillingResult(new JSONObject(payload));
+                        events.add(() -> stateListener.onBillingSetupFinished(billingResult));
+                        break;
+                    }
+                    case "BillingServiceDisconnectedCallback":
+                        events.add(stateListener::onBillingServiceDisconnected);
+                        break;
+                    case "PurchasesUpdatedCallback": {
+                        JSONObject json = new JSONObject(payload);
+                        BillingResult billingResult = toBillingResult(
+                                json.getJSONObject("BillingResult"));
+                        List<Purchase> purchases = toPurchases(json.optJSONArray("Purchases"));
+                        events.add(() -> purchasesUpdatedListener.onPurchasesUpdated(
+                                billingResult, purchases));
+                        break;
+                    }
+                    case "PurchasesResponseCallback": {
+                        JSONObject json = new JSONObject(payload);
+                        BillingResult billingResult = toBillingResult(
+                                json.getJSONObject("BillingResult"));
+                        List<Purchase> purchases = toPurchases(json.optJSONArray("Purchases"));
+                        events.add(() -> purchasesResponseListener.onQueryPurchasesResponse(
+                                billingResult, purchases));
+                        break;
+                    }
+                    case "ProductDetailsResponseCallback":
+                        events.add(toProductDetailsEvent(new JSONObject(payload)));
+                        break;
+                    case "ConsumeResponseCallback": {
+                        JSONObject json = new JSONObject(payload);
+                        BillingResult billingResult = toBillingResult(
+                                json.getJSONObject("BillingResult"));
+                        String purchaseToken = json.getString("PurchaseToken");
+                        events.add(() -> consumeResponseListener.onConsumeResponse(
+                                billingResult, purchaseToken));
+                        break;
+                    }
+                    default:
+                        skippedCallbacks.merge(methodName, 1, Integer::sum);
+                        break;
+                }
+            }
+        }
+    }
+
+    int getEventCount() {
+        return events.size();
+    }
+
+    Map<String, Integer> getSkippedCallbacks() {
+        return skippedCallbacks;
+    }
+
+    void replay() {
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).replay();
+        }
+    }
+
+    private static Event toProductDetailsEvent(JSONObject json) {
+        BillingResult billingResult = toBillingResult(json.getJSONObject("BillingResult"));
+        JSONObject result = json.getJSONObject("ProductDetailsResult");
+        int requestId = result.optInt("RequestId", 0);
+        List<ProductDetails> productDetailsList = new ArrayList<>();
+        JSONArray productDetailsArray = result.optJSONArray("ProductDetailsList");
+        for (int i = 0; productDetailsArray != null && i < productDetailsArray.length(); i++) {
+            productDetailsList.add(toProductDetails(productDetailsArray.getJSONObject(i)));
+        }
+        List<UnfetchedProduct> unfetchedProductList = new ArrayList<>();
+        JSONArray unfetchedArray = result.optJSONArray("UnfetchedProductList");
+        for (int i = 0; unfetchedArray != null && i < unfetchedArray.length(); i++) {
+            JSONObject unfetched = unfetchedArray.getJSONObject(i);
+            unfetchedProductList.add(new UnfetchedProduct(unfetched.optString("ProductId"),
+                    unfetched.optString("ProductType"), unfetched.optInt("StatusCode")));
+        }
+        return () -> BridgeAccess.onProductDetailsResult(requestId, billingResult,
+                productDetailsList, unfetchedProductList);
+    }
+
+    private static BillingResult toBillingResult(JSONObject json) {
+        return BillingResult.newBuilder()
+                .setResponseCode(json.optInt("ResponseCode"))
+                .setDebugMessage(json.optString("DebugMessage", ""))
+                .build();
+    }
+
+    private static List<Purchase> toPurchases(JSONArray json) {
+        List<Purchase> purchases = new ArrayList<>();
+        for (int i = 0; json != null && i < json.length(); i++) {
+            JSONObject purchase = json.getJSONObject(i);
+            JSONObject accountIdentifiers = purchase.optJSONObject("AccountIdentifiers");
+            List<String> products = new ArrayList<>();
+            JSONArray productsArray = purchase.optJSONArray("Products");
+            for (int j = 0; productsArray != null && j < productsArray.length(); j++) {
+                products.add(productsArray.getString(j));
+            }
+            purchases.add(new Purchase(
+                    accountIdentifiers == null ? null : new Purchase.AccountIdentifiers(
+                            accountIdentifiers.optString("ObfuscatedAccountId", null)),
+                    purchase.optString("DeveloperPayload", null),
+                    purchase.optString("OrderId", null),
+                    purchase.optString("OriginalJson", null),
+                    purchase.optString("PackageName", null),
+                    products,
+                    purchase.optInt("PurchaseState"),
+                    purchase.optLong("PurchaseTime"),
+                    purchase.optString("PurchaseToken", null),
+                    purchase.optString("Signature", null),
+                    purchase.optBoolean("IsAutoRenewing")));
+        }
+        return purchases;
+    }
+
+    private static ProductDetails toProductDetails(JSONObject json) {
+        JSONObject oneTimeOffer = json.optJSONObject("OneTimePurchaseOfferDetails");
+        List<ProductDetails.SubscriptionOfferDetails> subscriptionOffers = null;
+        JSONArray subscriptionOffersArray = json.optJSONArray("SubscriptionOfferDetails");
+        if (subscriptionOffersArray != null) {
+            subscriptionOffers = new ArrayList<>();
+            for (int i = 0; i < subscriptionOffersArray.length(); i++) {
+                subscriptionOffers.add(toSubscriptionOfferDetails(
+                        subscriptionOffersArray.getJSONObject(i)));
+            }
+        }
+        return new ProductDetails(json.optString("ProductId", null),
+                json.optString("ProductType", null), json.optString("Title", null),
+                json.optString("Description", null),
+                oneTimeOffer == null ? null
+                        : new ProductDetails.OneTimePurchaseOfferDetails(toPrice(oneTimeOffer)),
+                subscriptionOffers);
+    }
+
+    private static ProductDetails.SubscriptionOfferDetails toSubscriptionOfferDetails(
+            JSONObject json) {
+        List<ProductDetails.PricingPhase> pricingPhases = new ArrayList<>();
+        JSONObject pricingPhasesJson = json.optJSONObject("PricingPhases");
+        JSONArray pricingPhaseList = pricingPhasesJson == null ? null
+                : pricingPhasesJson.optJSONArray("PricingPhaseList");
+        for (int i = 0; pricingPhaseList != null && i < pricingPhaseList.length(); i++) {
+            JSONObject pricingPhase = pricingPhaseList.getJSONObject(i);
+            pricingPhases.add(new ProductDetails.PricingPhase(
+                    pricingPhase.optString("BillingPeriod", null), toPrice(pricingPhase)));
+        }
+        JSONObject trialDetails = json.optJSONObject("TrialDetails");
+        return new ProductDetails.SubscriptionOfferDetails(
+                new ProductDetails.PricingPhases(pricingPhases),
+                trialDetails == null ? null : new ProductDetails.TrialDetails(
+                        trialDetails.optString("Period", null),
+                        trialDetails.optString("PeriodEndDate", null)));
+    }
+
+    private static ProductDetails.Price toPrice(JSONObject json) {
+        return new ProductDetails.Price(json.optString("FormattedPrice", null),
+                json.optLong("PriceAmountMicros"), json.optString("PriceCurrencyCode", null),
+                json.optString("AppcFormattedPrice", null), json.optLong("AppcPriceAmountMicros"),
+                json.optString("AppcPriceCurrencyCode", null),
+                json.optString("FiatFormattedPrice", null), json.optLong("FiatPriceAmountMicros"),
+                json.optString("FiatPriceCurrencyCode", null));
+    }
+}
@@ -0,0 +1,22 @@
+package android.app;
+
+import android.content.Context;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+/**
+ * JVM stand-in for {@code android.app.Activity}. The UI thread is the given executor.
+ */
+public class Activity extends Context {
+    private final Executor uiThread;
+
+    public Activity(File filesDir, Executor uiThread) {
+        super(filesDir);
+        this.uiThread = uiThread;
+    }
+
+    public void runOnUiThread(Runnable action) {
+        uiThread.execute(action);
+    }
+}
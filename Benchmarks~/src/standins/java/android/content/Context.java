@@ -0,0 +1,30 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM stand-in for {@code android.content.Context}, backed by a directory on disk.
+ */
+public class Context {
+    private final File filesDir;
+
+    public Context(File filesDir) {
+        this.filesDir = filesDir;
+    }
+
+    public File getFilesDir() {
+        return filesDir;
+    }
+
+    public File getCacheDir() {
+        return filesDir;
+    }
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public String getPackageName() {
+        return "com.aptoide.unitybilling.benchmarks";
+    }
+}
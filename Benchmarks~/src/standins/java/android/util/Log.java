@@ -0,0 +1,53 @@
+package android.util;
+
+/**
+ * JVM stand-in for {@code android.util.Log}. Debug and info messages are dropped so that they do
+ * not skew the measurements; warnings and errors go to standard error.
+ */
+public final class Log {
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+    public static final int ASSERT = 7;
+
+    private Log() {
+    }
+
+    public static int v(String tag, String message) {
+        return 0;
+    }
+
+    public static int d(String tag, String message) {
+        return 0;
+    }
+
+    public static int i(String tag, String message) {
+        return 0;
+    }
+
+    public static int w(String tag, String message) {
+        return print("W", tag, message, null);
+    }
+
+    public static int w(String tag, String message, Throwable throwable) {
+        return print("W", tag, message, throwable);
+    }
+
+    public static int e(String tag, String message) {
+        return print("E", tag, message, null);
+    }
+
+    public static int e(String tag, String message, Throwable throwable) {
+        return print("E", tag, message, throwable);
+    }
+
+    private static int print(String level, String tag, String message, Throwable throwable) {
+        System.err.println(level + "/" + tag + ": " + message);
+        if (throwable != null) {
+            throwable.printStackTrace();
+        }
+        return 0;
+    }
+}
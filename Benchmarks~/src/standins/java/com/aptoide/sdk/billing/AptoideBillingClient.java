@@ -0,0 +1,76 @@
+package com.aptoide.sdk.billing;
+
+import android.app.Activity;
+import android.content.Context;
+import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
+import com.aptoide.sdk.billing.listeners.ConsumeResponseListener;
+
+/**
+ * JVM stand-in for the billing client of the Aptoide SDK. {@link Builder#build()} creates the
+ * client with {@link #factory}, which benchmarks point at a fake implementation.
+ */
+public abstract class AptoideBillingClient {
+    public interface Factory {
+        AptoideBillingClient create(Context context, PurchasesUpdatedListener listener,
+                String publicKey);
+    }
+
+    public static volatile Factory factory;
+
+    public static Builder newBuilder(Context context) {
+        return new Builder(context);
+    }
+
+    public static class Builder {
+        private final Context context;
+        private PurchasesUpdatedListener listener;
+        private String publicKey;
+
+        private Builder(Context context) {
+            this.context = context;
+        }
+
+        public Builder setListener(PurchasesUpdatedListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public Builder setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+            return this;
+        }
+
+        public AptoideBillingClient build() {
+            if (factory == null) {
+                throw new IllegalStateException("AptoideBillingClient.factory is not set.");
+            }
+            return factory.create(context, listener, publicKey);
+        }
+    }
+
+    public abstract void startConnection(AptoideBillingClientStateListener listener);
+
+    public abstract void endConnection();
+
+    public abstract boolean isReady();
+
+    public abstract void queryProductDetailsAsync(QueryProductDetailsParams params,
+            ProductDetailsResponseListener listener);
+
+    public abstract BillingResult launchBillingFlow(Activity activity, BillingFlowParams params);
+
+    public abstract void consumeAsync(ConsumeParams params, ConsumeResponseListener listener);
+
+    public abstract BillingResult isFeatureSupported(int feature);
+
+    public abstract void queryPurchasesAsync(QueryPurchasesParams params,
+            PurchasesResponseListener listener);
+
+    public abstract ReferralDeeplink getReferralDeeplink();
+
+    public abstract boolean isAppUpdateAvailable();
+
+    public abstract void launchAppUpdateDialog(Context context);
+
+    public abstract void launchAppUpdateStore(Context context);
+}
@@ -0,0 +1,109 @@
+package com.aptoide.sdk.billing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BillingFlowParams {
+    private final String productId;
+    private final String productType;
+    private final String developerPayload;
+    private final String obfuscatedAccountId;
+    private final boolean freeTrial;
+
+    public BillingFlowParams(String productId, String productType, String developerPayload,
+            String obfuscatedAccountId, boolean freeTrial) {
+        this.productId = productId;
+        this.productType = productType;
+        this.developerPayload = developerPayload;
+        this.obfuscatedAccountId = obfuscatedAccountId;
+        this.freeTrial = freeTrial;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public String getDeveloperPayload() {
+        return developerPayload;
+    }
+
+    public String getObfuscatedAccountId() {
+        return obfuscatedAccountId;
+    }
+
+    public boolean isFreeTrial() {
+        return freeTrial;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private List<ProductDetailsParams> productDetailsParamsList = new ArrayList<>();
+        private boolean freeTrial;
+        private String obfuscatedAccountId;
+        private String developerPayload;
+
+        public Builder setProductDetailsParamsList(
+                List<ProductDetailsParams> productDetailsParamsList) {
+            this.productDetailsParamsList = new ArrayList<>(productDetailsParamsList);
+            return this;
+        }
+
+        public Builder setFreeTrial(boolean freeTrial) {
+            this.freeTrial = freeTrial;
+            return this;
+        }
+
+        public Builder setObfuscatedAccountId(String obfuscatedAccountId) {
+            this.obfuscatedAccountId = obfuscatedAccountId;
+            return this;
+        }
+
+        public Builder setDeveloperPayload(String developerPayload) {
+            this.developerPayload = developerPayload;
+            return this;
+        }
+
+        public BillingFlowParams build() {
+            ProductDetails productDetails = productDetailsParamsList.get(0).getProductDetails();
+            return new BillingFlowParams(productDetails.getProductId(),
+                    productDetails.getProductType(), developerPayload, obfuscatedAccountId,
+                    freeTrial);
+        }
+    }
+
+    public static class ProductDetailsParams {
+        private final ProductDetails productDetails;
+
+        private ProductDetailsParams(ProductDetails productDetails) {
+            this.productDetails = productDetails;
+        }
+
+        public ProductDetails getProductDetails() {
+            return productDetails;
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public static class Builder {
+            private ProductDetails productDetails;
+
+            public Builder setProductDetails(ProductDetails productDetails) {
+                this.productDetails = productDetails;
+                return this;
+            }
+
+            public ProductDetailsParams build() {
+                return new ProductDetailsParams(productDetails);
+            }
+        }
+    }
+}
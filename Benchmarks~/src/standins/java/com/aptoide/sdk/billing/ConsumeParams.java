@@ -0,0 +1,30 @@
+package com.aptoide.sdk.billing;
+
+public class ConsumeParams {
+    private final String purchaseToken;
+
+    private ConsumeParams(String purchaseToken) {
+        this.purchaseToken = purchaseToken;
+    }
+
+    public String getPurchaseToken() {
+        return purchaseToken;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String purchaseToken;
+
+        public Builder setPurchaseToken(String purchaseToken) {
+            this.purchaseToken = purchaseToken;
+            return this;
+        }
+
+        public ConsumeParams build() {
+            return new ConsumeParams(purchaseToken);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.aptoide.sdk.billing;
+
+import java.util.List;
+
+public class ProductDetails {
+    private final String productId;
+    private final String productType;
+    private final String title;
+    private final String description;
+    private final OneTimePurchaseOfferDetails oneTimePurchaseOfferDetails;
+    private final List<SubscriptionOfferDetails> subscriptionOfferDetails;
+
+    public ProductDetails(String productId, String productType, String title, String description,
+            OneTimePurchaseOfferDetails oneTimePurchaseOfferDetails,
+            List<SubscriptionOfferDetails> subscriptionOfferDetails) {
+        this.productId = productId;
+        this.productType = productType;
+        this.title = title;
+        this.description = description;
+        this.oneTimePurchaseOfferDetails = oneTimePurchaseOfferDetails;
+        this.subscriptionOfferDetails = subscriptionOfferDetails;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public OneTimePurchaseOfferDetails getOneTimePurchaseOfferDetails() {
+        return oneTimePurchaseOfferDetails;
+    }
+
+    public List<SubscriptionOfferDetails> getSubscriptionOfferDetails() {
+        return subscriptionOfferDetails;
+    }
+
+    /**
+     * The price of an offer or pricing phase, in the store currency, in APPC and in fiat.
+     */
+    public static class Price {
+        private final String formattedPrice;
+        private final long priceAmountMicros;
+        private final String priceCurrencyCode;
+        private final String appcFormattedPrice;
+        private final long appcPriceAmountMicros;
+        private final String appcPriceCurrencyCode;
+        private final String fiatFormattedPrice;
+        private final long fiatPriceAmountMicros;
+        private final String fiatPriceCurrencyCode;
+
+        public Price(String formattedPrice, long priceAmountMicros, String priceCurrencyCode,
+                String appcFormattedPrice, long appcPriceAmountMicros,
+                String appcPriceCurrencyCode, String fiatFormattedPrice,
+                long fiatPriceAmountMicros, String fiatPriceCurrencyCode) {
+            this.formattedPrice = formattedPrice;
+            this.priceAmountMicros = priceAmountMicros;
+            this.priceCurrencyCode = priceCurrencyCode;
+            this.appcFormattedPrice = appcFormattedPrice;
+            this.appcPriceAmountMicros = appcPriceAmountMicros;
+            this.appcPriceCurrencyCode = appcPriceCurrencyCode;
+            this.fiatFormattedPrice = fiatFormattedPrice;
+            this.fiatPriceAmountMicros = fiatPriceAmountMicros;
+            this.fiatPriceCurrencyCode = fiatPriceCurrencyCode;
+        }
+
+        public Price(Price price) {
+            this(price.formattedPrice, price.priceAmountMicros, price.priceCurrencyCode,
+                    price.appcFormattedPrice, price.appcPriceAmountMicros,
+                    price.appcPriceCurrencyCode, price.fiatFormattedPrice,
+                    price.fiatPriceAmountMicros, price.fiatPriceCurrencyCode);
+        }
+
+        public String getFormattedPrice() {
+            return formattedPrice;
+        }
+
+        public long getPriceAmountMicros() {
+            return priceAmountMicros;
+        }
+
+        public String getPriceCurrencyCode() {
+            return priceCurrencyCode;
+        }
+
+        public String getAppcFormattedPrice() {
+            return appcFormattedPrice;
+        }
+
+        public long getAppcPriceAmountMicros() {
+            return appcPriceAmountMicros;
+        }
+
+        public String getAppcPriceCurrencyCode() {
+            return appcPriceCurrencyCode;
+        }
+
+        public String getFiatFormattedPrice() {
+            return fiatFormattedPrice;
+        }
+
+        public long getFiatPriceAmountMicros() {
+            return fiatPriceAmountMicros;
+        }
+
+        public String getFiatPriceCurrencyCode() {
+            return fiatPriceCurrencyCode;
+        }
+    }
+
+    public static class OneTimePurchaseOfferDetails extends Price {
+        public OneTimePurchaseOfferDetails(Price price) {
+            super(price);
+        }
+    }
+
+    public static class SubscriptionOfferDetails {
+        private final PricingPhases pricingPhases;
+        private final TrialDetails trialDetails;
+
+        public SubscriptionOfferDetails(PricingPhases pricingPhases, TrialDetails trialDetails) {
+            this.pricingPhases = pricingPhases;
+            this.trialDetails = trialDetails;
+        }
+
+        public PricingPhases getPricingPhases() {
+            return pricingPhases;
+        }
+
+        public TrialDetails getTrialDetails() {
+            return trialDetails;
+        }
+    }
+
+    public static class PricingPhases {
+        private final List<PricingPhase> pricingPhaseList;
+
+        public PricingPhases(List<PricingPhase> pricingPhaseList) {
+            this.pricingPhaseList = pricingPhaseList;
+        }
+
+        public List<PricingPhase> getPricingPhaseList() {
+            return pricingPhaseList;
+        }
+    }
+
+    public static class TrialDetails {
+        private final String period;
+        private final String periodEndDate;
+
+        public TrialDetails(String period, String periodEndDate) {
+            this.period = period;
+            this.periodEndDate = periodEndDate;
+        }
+
+        public String getPeriod() {
+            return period;
+        }
+
+        public String getPeriodEndDate() {
+            return periodEndDate;
+        }
+    }
+
+    public static class PricingPhase extends Price {
+        private final String billingPeriod;
+
+        public PricingPhase(String billingPeriod, Price price) {
+            super(price);
+            this.billingPeriod = billingPeriod;
+        }
+
+        public String getBillingPeriod() {
+            return billingPeriod;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.aptoide.sdk.billing;
+
+public interface ProductDetailsResponseListener {
+    void onProductDetailsResponse(BillingResult billingResult,
+            QueryProductDetailsResult productDetailsResult);
+}
@@ -0,0 +1,90 @@
+package com.aptoide.sdk.billing;
+
+import java.util.List;
+
+public class Purchase {
+    private final AccountIdentifiers accountIdentifiers;
+    private final String developerPayload;
+    private final String orderId;
+    private final String originalJson;
+    private final String packageName;
+    private final List<String> products;
+    private final int purchaseState;
+    private final long purchaseTime;
+    private final String purchaseToken;
+    private final String signature;
+    private final boolean autoRenewing;
+
+    public Purchase(AccountIdentifiers accountIdentifiers, String developerPayload,
+            String orderId, String originalJson, String packageName, List<String> products,
+            int purchaseState, long purchaseTime, String purchaseToken, String signature,
+            boolean autoRenewing) {
+        this.accountIdentifiers = accountIdentifiers;
+        this.developerPayload = developerPayload;
+        this.orderId = orderId;
+        this.originalJson = originalJson;
+        this.packageName = packageName;
+        this.products = products;
+        this.purchaseState = purchaseState;
+        this.purchaseTime = purchaseTime;
+        this.purchaseToken = purchaseToken;
+        this.signature = signature;
+        this.autoRenewing = autoRenewing;
+    }
+
+    public AccountIdentifiers getAccountIdentifiers() {
+        return accountIdentifiers;
+    }
+
+    public String getDeveloperPayload() {
+        return developerPayload;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getOriginalJson() {
+        return originalJson;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public List<String> getProducts() {
+        return products;
+    }
+
+    public int getPurchaseState() {
+        return purchaseState;
+    }
+
+    public long getPurchaseTime() {
+        return purchaseTime;
+    }
+
+    public String getPurchaseToken() {
+        return purchaseToken;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public boolean isAutoRenewing() {
+        return autoRenewing;
+    }
+
+    public static class AccountIdentifiers {
+        private final String obfuscatedAccountId;
+
+        public AccountIdentifiers(String obfuscatedAccountId) {
+            this.obfuscatedAccountId = obfuscatedAccountId;
+        }
+
+        public String getObfuscatedAccountId() {
+            return obfuscatedAccountId;
+        }
+    }
+}
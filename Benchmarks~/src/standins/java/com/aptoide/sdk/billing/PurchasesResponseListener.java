@@ -0,0 +1,7 @@
+package com.aptoide.sdk.billing;
+
+import java.util.List;
+
+public interface PurchasesResponseListener {
+    void onQueryPurchasesResponse(BillingResult billingResult, List<Purchase> purchases);
+}
@@ -0,0 +1,74 @@
+package com.aptoide.sdk.billing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryProductDetailsParams {
+    private final List<Product> productList;
+
+    private QueryProductDetailsParams(List<Product> productList) {
+        this.productList = productList;
+    }
+
+    public List<Product> getProductList() {
+        return productList;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private List<Product> productList = new ArrayList<>();
+
+        public Builder setProductList(List<Product> productList) {
+            this.productList = new ArrayList<>(productList);
+            return this;
+        }
+
+        public QueryProductDetailsParams build() {
+            return new QueryProductDetailsParams(productList);
+        }
+    }
+
+    public static class Product {
+        private final String productId;
+        private final String productType;
+
+        private Product(String productId, String productType) {
+            this.productId = productId;
+            this.productType = productType;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public String getProductType() {
+            return productType;
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public static class Builder {
+            private String productId;
+            private String productType;
+
+            public Builder setProductId(String productId) {
+                this.productId = productId;
+                return this;
+            }
+
+            public Builder setProductType(String productType) {
+                this.productType = productType;
+                return this;
+            }
+
+            public Product build() {
+                return new Product(productId, productType);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.aptoide.sdk.billing;
+
+import java.util.List;
+
+public class QueryProductDetailsResult {
+    private final List<ProductDetails> productDetailsList;
+    private final List<UnfetchedProduct> unfetchedProductList;
+
+    public QueryProductDetailsResult(List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        this.productDetailsList = productDetailsList;
+        this.unfetchedProductList = unfetchedProductList;
+    }
+
+    public List<ProductDetails> getProductDetailsList() {
+        return productDetailsList;
+    }
+
+    public List<UnfetchedProduct> getUnfetchedProductList() {
+        return unfetchedProductList;
+    }
+}
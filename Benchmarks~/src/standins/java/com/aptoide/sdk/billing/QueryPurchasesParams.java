@@ -0,0 +1,30 @@
+package com.aptoide.sdk.billing;
+
+public class QueryPurchasesParams {
+    private final String productType;
+
+    private QueryPurchasesParams(String productType) {
+        this.productType = productType;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String productType;
+
+        public Builder setProductType(String productType) {
+            this.productType = productType;
+            return this;
+        }
+
+        public QueryPurchasesParams build() {
+            return new QueryPurchasesParams(productType);
+        }
+    }
+}
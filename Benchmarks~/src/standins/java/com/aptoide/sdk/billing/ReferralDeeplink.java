@@ -0,0 +1,26 @@
+package com.aptoide.sdk.billing;
+
+public class ReferralDeeplink {
+    private final BillingResult billingResult;
+    private final String storeDeeplink;
+    private final String fallbackDeeplink;
+
+    public ReferralDeeplink(BillingResult billingResult, String storeDeeplink,
+            String fallbackDeeplink) {
+        this.billingResult = billingResult;
+        this.storeDeeplink = storeDeeplink;
+        this.fallbackDeeplink = fallbackDeeplink;
+    }
+
+    public BillingResult getBillingResult() {
+        return billingResult;
+    }
+
+    public String getStoreDeeplink() {
+        return storeDeeplink;
+    }
+
+    public String getFallbackDeeplink() {
+        return fallbackDeeplink;
+    }
+}
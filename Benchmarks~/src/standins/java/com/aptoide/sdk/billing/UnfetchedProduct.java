@@ -0,0 +1,25 @@
+package com.aptoide.sdk.billing;
+
+public class UnfetchedProduct {
+    private final String productId;
+    private final String productType;
+    private final int statusCode;
+
+    public UnfetchedProduct(String productId, String productType, int statusCode) {
+        this.productId = productId;
+        this.productType = productType;
+        this.statusCode = statusCode;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,9 @@
+package com.aptoide.sdk.billing.listeners;
+
+import com.aptoide.sdk.billing.BillingResult;
+
+public interface AptoideBillingClientStateListener {
+    void onBillingSetupFinished(BillingResult billingResult);
+
+    void onBillingServiceDisconnected();
+}
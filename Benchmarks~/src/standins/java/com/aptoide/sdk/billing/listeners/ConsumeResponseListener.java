@@ -0,0 +1,7 @@
+package com.aptoide.sdk.billing.listeners;
+
+import com.aptoide.sdk.billing.BillingResult;
+
+public interface ConsumeResponseListener {
+    void onConsumeResponse(BillingResult billingResult, String purchaseToken);
+}
@@ -0,0 +1,20 @@
+package com.unity3d.player;
+
+import android.app.Activity;
+
+/**
+ * JVM stand-in for the Unity player. Messages sent to Unity are handed to {@link #messageSink}.
+ */
+public class UnityPlayer {
+    public interface MessageSink {
+        void onMessage(String gameObject, String methodName, String message);
+    }
+
+    public static Activity currentActivity;
+    public static volatile MessageSink messageSink = (gameObject, methodName, message) -> {
+    };
+
+    public static void UnitySendMessage(String gameObject, String methodName, String message) {
+        messageSink.onMessage(gameObject, methodName, message);
+    }
+}
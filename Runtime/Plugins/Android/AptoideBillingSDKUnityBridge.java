@@ -1,4 +1,3 @@
-import android.util.Log;
 import androidx.annotation.NonNull;
 import com.aptoide.sdk.billing.*;
 import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
@@ -8,10 +7,18 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class AptoideBillingSDKUnityBridge {
@@ -19,65 +26,178 @@ public class AptoideBillingSDKUnityBridge {
     private static String TAG = "AptoideBillingSDKUnityBridge";
     private static AptoideBillingClient billingClient;
 
-    private static Map<String, ProductDetails> fetchedProductDetailsMap = new HashMap<>();
+    private static final int RESPONSE_CODE_OK = 0;
+    private static final String PRODUCT_CATALOG_CACHE_FILE = "aptoide_billing_product_catalog.json";
+    private static final String CONSUME_JOURNAL_FILE = "aptoide_billing_consume_journal";
+    private static final long PRODUCT_CATALOG_CACHE_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long PRODUCT_CATALOG_CACHE_WRITE_DELAY_MILLIS = 2000L;
+    private static final int MAX_PRODUCTS_PER_QUERY = 50;
+    private static final int MAX_CACHED_PRODUCT_FRAGMENTS = 500;
+    private static final int EVENT_QUEUE_CAPACITY = 256;
+    private static final int MAX_PENDING_BINARY_PAYLOADS = 256;
+    private static final int MAX_PENDING_OPERATIONS = 64;
+    private static final long OPERATION_QUEUE_DEADLINE_MILLIS = 30 * 1000L;
+    private static final long RECONNECT_INITIAL_BACKOFF_MILLIS = 1000L;
+    private static final long RECONNECT_MAX_BACKOFF_MILLIS = 60 * 1000L;
+    private static final int MAX_CONCURRENT_CONSUMES = 4;
+    private static final int FLIGHT_RECORDER_CAPACITY = 128;
+    private static final int ASYNC_CALL_THREADS = 2;
+    private static final long IS_READY_CACHE_TTL_MILLIS = 1000L;
+    private static final long FEATURE_SUPPORT_CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+    private static final long APP_UPDATE_CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+    private static final long REFERRAL_DEEPLINK_CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private static final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor();
+    // Refreshes of the synchronous call caches, which would otherwise wait behind catalog and
+    // journal writes on backgroundExecutor, and delay them in turn
+    private static final ExecutorService syncCallExecutor = Executors.newSingleThreadExecutor();
+    private static final ExecutorService asyncCallExecutor =
+            Executors.newFixedThreadPool(ASYNC_CALL_THREADS);
+    private static final AtomicInteger nextAsyncRequestId = new AtomicInteger(1);
+    private static final ScheduledExecutorService connectionScheduler =
+            Executors.newSingleThreadScheduledExecutor();
+    private static ProductDetailsCatalogCache productCatalogCache;
+    private static ConsumePipeline consumePipeline;
+    private static volatile boolean productDetailsReceived = false;
+    private static volatile boolean productCatalogRefreshPending = false;
+    private static volatile boolean streamingJsonSerializerEnabled = true;
+    private static volatile boolean eventBatchingEnabled = false;
+    private static final BridgeEventQueue eventQueue = new BridgeEventQueue(EVENT_QUEUE_CAPACITY);
+    private static volatile boolean binaryPayloadsEnabled = false;
+    private static final BridgeBinaryPayloads binaryPayloads =
+            new BridgeBinaryPayloads(MAX_PENDING_BINARY_PAYLOADS);
+
+    private static final ProductDetailsStore fetchedProductDetailsStore = new ProductDetailsStore();
+    private static final PurchaseSyncTracker purchaseSyncTracker = new PurchaseSyncTracker();
+    private static final BridgeMetrics metrics = new BridgeMetrics();
+    private static final FlightRecorder flightRecorder =
+            new FlightRecorder(FLIGHT_RECORDER_CAPACITY);
+    private static final CallbackTraceRecorder callbackTraceRecorder =
+            new CallbackTraceRecorder();
+    private static volatile long billingFlowStartNanos = 0;
+    private static final ProductDetailsFragmentCache productDetailsFragmentCache =
+            new ProductDetailsFragmentCache(AptoideBillingSDKUnityBridge::writeProductDetails,
+                    MAX_CACHED_PRODUCT_FRAGMENTS);
+
+    private static final SyncCallCache<Boolean> isReadyCache =
+            new SyncCallCache<>(() -> billingClient.isReady(), syncCallExecutor,
+                    IS_READY_CACHE_TTL_MILLIS);
+    private static final SyncCallCache<Boolean> appUpdateAvailableCache =
+            new SyncCallCache<>(() -> billingClient.isAppUpdateAvailable(), syncCallExecutor,
+                    APP_UPDATE_CACHE_TTL_MILLIS);
+    private static final SyncCallCache<ReferralDeeplink> referralDeeplinkCache =
+            new SyncCallCache<>(() -> billingClient.getReferralDeeplink(), syncCallExecutor,
+                    REFERRAL_DEEPLINK_CACHE_TTL_MILLIS);
+    private static final ConcurrentHashMap<Integer, SyncCallCache<BillingResult>>
+            featureSupportCaches = new ConcurrentHashMap<>();
+    private static volatile long featureSupportCacheTtlMillis = FEATURE_SUPPORT_CACHE_TTL_MILLIS;
 
     private static AptoideBillingClientStateListener aptoideBillingClientStateListener =
             new AptoideBillingClientStateListener() {
                 @Override
                 public void onBillingSetupFinished(BillingResult billingResult) {
-                    Log.d(TAG, "Billing setup finished.");
-                    UnityPlayer.UnitySendMessage(unityClassName,
-                            "BillingSetupFinishedCallback",
+                    BridgeLog.d(TAG, "Billing setup finished.");
+                    flightRecorder.record("BillingSetupFinished", billingResult.getResponseCode(),
+                            0, 0);
+                    if (billingResult.getResponseCode() == RESPONSE_CODE_OK) {
+                        // Known without asking the client, and read by games from the callback
+                        isReadyCache.put(true);
+                    }
+                    sendUnityMessage("BillingSetupFinishedCallback",
                             "" + getBillingResultJsonObject(billingResult).toString());
+                    if (billingResult.getResponseCode() == RESPONSE_CODE_OK) {
+                        backgroundExecutor.execute(
+                                AptoideBillingSDKUnityBridge::refreshCachedProductCatalog);
+                        consumePipeline.resume();
+                        prefetchSyncCalls();
+                    }
                 }
 
                 @Override
                 public void onBillingServiceDisconnected() {
-                    Log.d(TAG, "Billing service disconnected.");
-                    UnityPlayer.UnitySendMessage(unityClassName,
-                            "BillingServiceDisconnectedCallback",
-                            "");
+                    BridgeLog.d(TAG, "Billing service disconnected.");
+                    flightRecorder.record("BillingServiceDisconnected", RESPONSE_CODE_OK, 0, 0);
+                    invalidateSyncCalls();
+                    sendUnityMessage("BillingServiceDisconnectedCallback", "");
                 }
             };
 
+    private static final BillingConnectionManager connectionManager =
+            new BillingConnectionManager(connectionScheduler, aptoideBillingClientStateListener,
+                    MAX_PENDING_OPERATIONS, RECONNECT_INITIAL_BACKOFF_MILLIS,
+                    RECONNECT_MAX_BACKOFF_MILLIS);
+
     private static PurchasesUpdatedListener purchasesUpdatedListener =
             (billingResult, purchases) -> {
-                Log.d(TAG,
-                        "Purchase updated: " + billingResult.getResponseCode() + " debugMessage: "
-                                + billingResult.getDebugMessage());
-                UnityPlayer.UnitySendMessage(unityClassName, "PurchasesUpdatedCallback",
+                BridgeLog.d(TAG, "Purchase updated", billingResult);
+                long startNanos = billingFlowStartNanos;
+                billingFlowStartNanos = 0;
+                if (startNanos != 0) {
+                    recordOperation(BridgeMetrics.OP_LAUNCH_BILLING_FLOW,
+                            billingResult.getResponseCode(), startNanos, sizeOf(purchases));
+                } else {
+                    flightRecorder.record("PurchasesUpdated", billingResult.getResponseCode(), 0,
+                            sizeOf(purchases));
+                }
+                if (binaryPayloadsEnabled) {
+                    sendBinaryPayload(binaryPayloads.addPurchases(
+                            BridgeBinaryPayloads.KIND_PURCHASES_UPDATED, billingResult, purchases));
+                    return;
+                }
+                sendUnityMessage("PurchasesUpdatedCallback",
                         purchasesResponseResultToJson(billingResult, purchases));
             };
 
     private static PurchasesResponseListener purchasesResponseListener =
             (billingResult, purchases) -> {
-                Log.d(TAG,
-                        "Purchases received: " + billingResult.getResponseCode() + " debugMessage: "
-                                + billingResult.getDebugMessage());
-                UnityPlayer.UnitySendMessage(unityClassName, "PurchasesResponseCallback",
-                        purchasesResponseResultToJson(billingResult, (List<Purchase>) purchases));
+                BridgeLog.d(TAG, "Purchases received", billingResult);
+                if (binaryPayloadsEnabled) {
+                    sendBinaryPayload(binaryPayloads.addPurchases(
+                            BridgeBinaryPayloads.KIND_PURCHASES_RESPONSE, billingResult,
+                            purchases));
+                    return;
+                }
+                sendUnityMessage("PurchasesResponseCallback",
+                        purchasesResponseResultToJson(billingResult, purchases));
             };
 
-    private static ProductDetailsResponseListener productDetailsResponseListener =
-            (billingResult, productDetailsResult) -> {
-                Log.d(TAG, "Product details received: " + billingResult.getResponseCode()
-                        + " debugMessage: " + billingResult.getDebugMessage());
-                if (!productDetailsResult.getProductDetailsList().isEmpty()) {
-                    for (ProductDetails productDetail :
-                            productDetailsResult.getProductDetailsList()) {
-                        fetchedProductDetailsMap.put(productDetail.getProductId(), productDetail);
-                    }
+    private static ProductDetailsQueryScheduler.ResultListener productDetailsResultListener =
+            (requestId, scheduledAtNanos, billingResult, productDetailsList,
+                    unfetchedProductList) -> {
+                if (BridgeLog.isDebugEnabled()) {
+                    BridgeLog.d(TAG, "Product details request " + requestId + " finished",
+                            billingResult);
+                }
+                recordOperation(BridgeMetrics.OP_QUERY_PRODUCT_DETAILS,
+                        billingResult.getResponseCode(), scheduledAtNanos,
+                        productDetailsList.size());
+                long generation = fetchedProductDetailsStore.getGeneration();
+                if (!productDetailsList.isEmpty()) {
+                    productDetailsReceived = true;
+                    generation = fetchedProductDetailsStore.publish(productDetailsList);
+                    backgroundExecutor.execute(() -> cacheProductCatalog(productDetailsList));
                 }
-                UnityPlayer.UnitySendMessage(unityClassName, "ProductDetailsResponseCallback",
-                        productDetailsResultToJson(billingResult, productDetailsResult));
+                if (binaryPayloadsEnabled) {
+                    sendBinaryPayload(binaryPayloads.addProductDetails(requestId, generation,
+                            billingResult, productDetailsList, unfetchedProductList));
+                    return;
+                }
+                sendUnityMessage("ProductDetailsResponseCallback",
+                        productDetailsResultToJson(requestId, generation, billingResult,
+                                productDetailsList, unfetchedProductList));
             };
 
+    private static ProductDetailsQueryScheduler productDetailsQueryScheduler =
+            new ProductDetailsQueryScheduler(AptoideBillingSDKUnityBridge::queryProductDetailsChunk,
+                    productDetailsResultListener, MAX_PRODUCTS_PER_QUERY);
+
     private static ConsumeResponseListener consumeResponseListener =
             (billingResult, purchaseToken) -> {
-                Log.d(TAG, "Consume response: " + purchaseToken + ", result: "
-                        + billingResult.getResponseCode() + " debugMessage: "
-                        + billingResult.getDebugMessage());
-                UnityPlayer.UnitySendMessage(unityClassName, "ConsumeResponseCallback",
+                if (BridgeLog.isDebugEnabled()) {
+                    BridgeLog.d(TAG, "Consume response: " + purchaseToken + ", result",
+                            billingResult);
+                }
+                sendUnityMessage("ConsumeResponseCallback",
                         consumeResultToJson(billingResult, purchaseToken));
             };
 
@@ -87,24 +207,68 @@ public class AptoideBillingSDKUnityBridge {
                 .setListener(purchasesUpdatedListener)
                 .setPublicKey(_publicKey)
                 .build();
+        consumePipeline = new ConsumePipeline(
+                new File(UnityPlayer.currentActivity.getFilesDir(), CONSUME_JOURNAL_FILE),
+                backgroundExecutor, AptoideBillingSDKUnityBridge::consumePurchaseToken,
+                consumeResponseListener::onConsumeResponse, MAX_CONCURRENT_CONSUMES);
+        productCatalogCache = new ProductDetailsCatalogCache(
+                new File(UnityPlayer.currentActivity.getFilesDir(), PRODUCT_CATALOG_CACHE_FILE),
+                Locale.getDefault().toString(), PRODUCT_CATALOG_CACHE_TTL_MILLIS);
+        productCatalogRefreshPending = true;
+        backgroundExecutor.execute(AptoideBillingSDKUnityBridge::sendCachedProductCatalog);
+
+        // Warm up the connection so that it is ready by the time the game starts using it. Last,
+        // since the setup may finish right away and relies on everything above
+        connectionManager.connect(billingClient);
     }
 
     public static void startConnection() {
-        billingClient.startConnection(aptoideBillingClientStateListener);
+        connectionManager.connect(billingClient);
     }
 
     public static void endConnection() {
+        connectionManager.close();
         billingClient.endConnection();
-        Log.d(TAG, "Billing client connection ended.");
+        invalidateSyncCalls();
+        BridgeLog.d(TAG, "Billing client connection ended.");
     }
 
     public static boolean isReady() {
-        boolean ready = billingClient.isReady();
-        Log.d(TAG, "Billing client is ready: " + ready);
+        boolean ready = isReadyCache.get().value;
+        BridgeLog.d(TAG, "Billing client is ready: ", ready);
         return ready;
     }
 
-    public static void queryProductDetailsAsync(List<String> products, String productType) {
+    public static int queryProductDetailsAsync(List<String> products, String productType) {
+        int requestId = productDetailsQueryScheduler.schedule(productType, products);
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Scheduled product details request " + requestId + " for "
+                    + products.size() + " products.");
+        }
+        return requestId;
+    }
+
+    /**
+     * Queries products of mixed types in one request: {@code productTypes} holds the type of the
+     * product at the same index in {@code products}. The types are queried in parallel and answer
+     * with a single ProductDetailsResponseCallback.
+     */
+    public static int queryProductDetailsAsync(List<String> products, List<String> productTypes) {
+        if (products.size() != productTypes.size()) {
+            BridgeLog.e(TAG, "Got " + products.size() + " products but " + productTypes.size()
+                    + " product types.");
+            return 0;
+        }
+        int requestId = productDetailsQueryScheduler.schedule(products, productTypes);
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Scheduled product details request " + requestId + " for "
+                    + products.size() + " products of mixed types.");
+        }
+        return requestId;
+    }
+
+    private static void queryProductDetailsChunk(String productType, List<String> products,
+            ProductDetailsQueryScheduler.ChunkListener chunkListener) {
         List<QueryProductDetailsParams.Product> productList = new ArrayList<>();
         for (String product : products) {
             productList.add(
@@ -119,12 +283,53 @@ public class AptoideBillingSDKUnityBridge {
                 QueryProductDetailsParams.newBuilder()
                         .setProductList(productList)
                         .build();
-        billingClient.queryProductDetailsAsync(queryProductDetailsParams2,
-                productDetailsResponseListener);
+        connectionManager.execute(new BillingConnectionManager.Operation() {
+            @Override
+            public void execute() {
+                billingClient.queryProductDetailsAsync(queryProductDetailsParams2,
+                        (billingResult, productDetailsResult) -> {
+                            BridgeLog.d(TAG, "Product details received", billingResult);
+                            chunkListener.onChunkResult(billingResult,
+                                    productDetailsResult.getProductDetailsList(),
+                                    productDetailsResult.getUnfetchedProductList());
+                        });
+            }
+
+            @Override
+            public void onFailed(BillingResult billingResult) {
+                chunkListener.onChunkResult(billingResult, new ArrayList<>(), new ArrayList<>());
+            }
+        }, OPERATION_QUEUE_DEADLINE_MILLIS);
     }
 
     public static String launchBillingFlow(String productId, String productType,
             String developerPayload, String obfuscatedAccountId, boolean freeTrial) {
+        BillingResult billingResult = startBillingFlow(productId, productType, developerPayload,
+                obfuscatedAccountId, freeTrial);
+        return getBillingResultJsonObject(billingResult).toString();
+    }
+
+    /**
+     * Same as {@link #launchBillingFlow}, but launched from the UI thread of the current activity
+     * without blocking the caller. Returns the id of the request, which tags the
+     * LaunchBillingFlowResponseCallback.
+     */
+    public static int launchBillingFlowAsync(String productId, String productType,
+            String developerPayload, String obfuscatedAccountId, boolean freeTrial) {
+        int requestId = nextAsyncRequestId.getAndIncrement();
+        UnityPlayer.currentActivity.runOnUiThread(() -> {
+            BillingResult billingResult = startBillingFlow(productId, productType,
+                    developerPayload, obfuscatedAccountId, freeTrial);
+            sendUnityMessage("LaunchBillingFlowResponseCallback",
+                    asyncBillingResultToJson(requestId, billingResult));
+        });
+        return requestId;
+    }
+
+    private static BillingResult startBillingFlow(String productId, String productType,
+            String developerPayload, String obfuscatedAccountId, boolean freeTrial) {
+        long startNanos = metrics.start();
+        billingFlowStartNanos = startNanos;
         ProductDetails productDetails = getProductDetailsFromProductId(productId);
         BillingResult billingResult;
         if (productDetails != null) {
@@ -150,58 +355,616 @@ public class AptoideBillingSDKUnityBridge {
             billingResult = billingClient.launchBillingFlow(UnityPlayer.currentActivity,
                     billingFlowParams);
         }
-        Log.d(TAG, "Launch of Billing Flow result: " + billingResult.getResponseCode()
-                + " debugMessage: " + billingResult.getDebugMessage());
-        return getBillingResultJsonObject(billingResult).toString();
+        BridgeLog.d(TAG, "Launch of Billing Flow result", billingResult);
+        if (billingResult.getResponseCode() != RESPONSE_CODE_OK) {
+            // No purchase update will follow a flow that failed to launch
+            recordOperation(BridgeMetrics.OP_LAUNCH_BILLING_FLOW,
+                    billingResult.getResponseCode(), startNanos, 0);
+            billingFlowStartNanos = 0;
+        }
+        return billingResult;
     }
 
     public static void consumeAsync(String purchaseToken) {
+        consumePipeline.submit(Collections.singletonList(purchaseToken), null);
+    }
+
+    /**
+     * Consumes every purchase token of the list, a few at a time, and returns the id of the
+     * batch. Each token gets its own ConsumeResponseCallback, unless it was already being
+     * consumed, and the whole batch a ConsumeBatchResponseCallback once all of them are done.
+     */
+    public static int consumeBatchAsync(List<String> purchaseTokens) {
+        int batchId = consumePipeline.submit(purchaseTokens,
+                (finishedBatchId, finishedPurchaseTokens, billingResults) -> sendUnityMessage(
+                        "ConsumeBatchResponseCallback", consumeBatchResultToJson(finishedBatchId,
+                                finishedPurchaseTokens, billingResults)));
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Submitted consume batch " + batchId + " with "
+                    + purchaseTokens.size() + " purchase tokens.");
+        }
+        return batchId;
+    }
+
+    private static void consumePurchaseToken(String purchaseToken,
+            ConsumeResponseListener pipelineListener) {
+        long startNanos = metrics.start();
+        ConsumeResponseListener listener = (billingResult, consumedPurchaseToken) -> {
+            recordOperation(BridgeMetrics.OP_CONSUME, billingResult.getResponseCode(), startNanos,
+                    1);
+            pipelineListener.onConsumeResponse(billingResult, consumedPurchaseToken);
+        };
         ConsumeParams consumeParams =
                 ConsumeParams.newBuilder()
                         .setPurchaseToken(purchaseToken)
                         .build();
-        billingClient.consumeAsync(consumeParams, consumeResponseListener);
+        connectionManager.execute(new BillingConnectionManager.Operation() {
+            @Override
+            public void execute() {
+                billingClient.consumeAsync(consumeParams, listener);
+            }
+
+            @Override
+            public void onFailed(BillingResult billingResult) {
+                listener.onConsumeResponse(billingResult, purchaseToken);
+            }
+        }, OPERATION_QUEUE_DEADLINE_MILLIS);
     }
 
     public static String isFeatureSupported(int feature) {
-        BillingResult billingResult = billingClient.isFeatureSupported(feature);
-        Log.d(TAG, "Feature " + feature + " supported: " + (billingResult.getResponseCode() == 0));
+        BillingResult billingResult = getFeatureSupportCache(feature).get().value;
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Feature " + feature + " supported: ",
+                    billingResult.getResponseCode() == 0);
+        }
         return getBillingResultJsonObject(billingResult).toString();
     }
 
     public static void queryPurchasesAsync(String productType) {
-        Log.d(TAG, "Querying purchases async of product type: " + productType);
+        BridgeLog.d(TAG, "Querying purchases async of product type: ", productType);
         QueryPurchasesParams queryPurchasesParams =
                 QueryPurchasesParams.newBuilder()
                         .setProductType(productType)
                         .build();
-        billingClient.queryPurchasesAsync(queryPurchasesParams, purchasesResponseListener);
+        long startNanos = metrics.start();
+        PurchasesResponseListener listener = (billingResult, purchases) -> {
+            recordOperation(BridgeMetrics.OP_QUERY_PURCHASES, billingResult.getResponseCode(),
+                    startNanos, sizeOf(purchases));
+            purchasesResponseListener.onQueryPurchasesResponse(billingResult, purchases);
+        };
+        connectionManager.execute(new BillingConnectionManager.Operation() {
+            @Override
+            public void execute() {
+                billingClient.queryPurchasesAsync(queryPurchasesParams, listener);
+            }
+
+            @Override
+            public void onFailed(BillingResult billingResult) {
+                listener.onQueryPurchasesResponse(billingResult, new ArrayList<>());
+            }
+        }, OPERATION_QUEUE_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Queries the purchases of the product type and sends only what changed since the previous
+     * delta of that type (PurchasesDeltaResponseCallback). The first delta of a product type, or
+     * the first after {@link #resetPurchaseSync(String)}, is a full resync.
+     */
+    public static void queryPurchasesDeltaAsync(String productType) {
+        BridgeLog.d(TAG, "Querying purchases delta async of product type: ", productType);
+        QueryPurchasesParams queryPurchasesParams =
+                QueryPurchasesParams.newBuilder()
+                        .setProductType(productType)
+                        .build();
+        long startNanos = metrics.start();
+        PurchasesResponseListener purchasesDeltaResponseListener =
+                (billingResult, purchases) -> {
+                    BridgeLog.d(TAG, "Purchases delta received", billingResult);
+                    recordOperation(BridgeMetrics.OP_QUERY_PURCHASES_DELTA,
+                            billingResult.getResponseCode(), startNanos, sizeOf(purchases));
+                    sendPurchasesDelta(productType, billingResult, purchases);
+                };
+        connectionManager.execute(new BillingConnectionManager.Operation() {
+            @Override
+            public void execute() {
+                billingClient.queryPurchasesAsync(queryPurchasesParams,
+                        purchasesDeltaResponseListener);
+            }
+
+            @Override
+            public void onFailed(BillingResult billingResult) {
+                recordOperation(BridgeMetrics.OP_QUERY_PURCHASES_DELTA,
+                        billingResult.getResponseCode(), startNanos, 0);
+                sendPurchasesDelta(productType, billingResult, null);
+            }
+        }, OPERATION_QUEUE_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Forgets the purchases already sent for the product type, so that its next delta is a full
+     * resync. Unity calls it when it has no mirror of the purchases or detects a missed delta.
+     */
+    public static void resetPurchaseSync(String productType) {
+        purchaseSyncTracker.reset(productType);
+        BridgeLog.d(TAG, "Purchase sync reset for product type: ", productType);
     }
 
     public static String getReferralDeeplink() {
-        ReferralDeeplink referralDeeplink = billingClient.getReferralDeeplink();
-        Log.d(TAG, "Referral deeplink: " + referralDeeplink);
-        return referralDeeplinkResultToJson(referralDeeplink);
+        ReferralDeeplink referralDeeplink = referralDeeplinkCache.get().value;
+        BridgeLog.d(TAG, "Referral deeplink: ", referralDeeplink);
+        return referralDeeplinkResultToJson(referralDeeplink, null);
     }
 
     public static boolean isAppUpdateAvailable() {
-        boolean isUpdateAvailable = billingClient.isAppUpdateAvailable();
-        Log.d(TAG, "Is app update available: " + isUpdateAvailable);
+        boolean isUpdateAvailable = appUpdateAvailableCache.get().value;
+        BridgeLog.d(TAG, "Is app update available: ", isUpdateAvailable);
         return isUpdateAvailable;
     }
 
+    /**
+     * Asynchronous counterparts of the synchronous calls: the billing client is called on the
+     * async call executor and the result sent to Unity tagged with the returned request id.
+     * The fresh values also update the caches of the synchronous calls.
+     */
+    public static int isFeatureSupportedAsync(int feature) {
+        int requestId = nextAsyncRequestId.getAndIncrement();
+        asyncCallExecutor.execute(() -> {
+            BillingResult billingResult = billingClient.isFeatureSupported(feature);
+            getFeatureSupportCache(feature).put(billingResult);
+            BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+            writer.beginObject();
+            writer.field("RequestId", requestId);
+            writer.field("Feature", feature);
+            writeBillingResult(writer.name("BillingResult"), billingResult);
+            writer.endObject();
+            sendUnityMessage("FeatureSupportedResponseCallback", writer.toString());
+        });
+        return requestId;
+    }
+
+    public static int isAppUpdateAvailableAsync() {
+        int requestId = nextAsyncRequestId.getAndIncrement();
+        asyncCallExecutor.execute(() -> {
+            boolean isUpdateAvailable = billingClient.isAppUpdateAvailable();
+            appUpdateAvailableCache.put(isUpdateAvailable);
+            sendUnityMessage("AppUpdateAvailableResponseCallback", BridgeJsonWriter.obtain()
+                    .beginObject()
+                    .field("RequestId", requestId)
+                    .field("Value", isUpdateAvailable)
+                    .endObject()
+                    .toString());
+        });
+        return requestId;
+    }
+
+    public static int getReferralDeeplinkAsync() {
+        int requestId = nextAsyncRequestId.getAndIncrement();
+        asyncCallExecutor.execute(() -> {
+            ReferralDeeplink referralDeeplink = billingClient.getReferralDeeplink();
+            referralDeeplinkCache.put(referralDeeplink);
+            sendUnityMessage("ReferralDeeplinkResponseCallback",
+                    referralDeeplinkResultToJson(referralDeeplink, null, requestId));
+        });
+        return requestId;
+    }
+
+    /**
+     * Same as {@link #isReady()}, as JSON with a flag telling whether the cached value may be
+     * stale. The synchronous calls below all return from cache and refresh it in the background.
+     */
+    public static String isReadyCached() {
+        return cachedValueToJson(isReadyCache);
+    }
+
+    public static String isFeatureSupportedCached(int feature) {
+        SyncCallCache<BillingResult> cache = getFeatureSupportCache(feature);
+        SyncCallCache.Entry<BillingResult> entry = cache.get();
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writeBillingResult(writer.name("BillingResult"), entry.value);
+        writer.field("IsStale", cache.isStale(entry));
+        writer.endObject();
+        return writer.toString();
+    }
+
+    public static String isAppUpdateAvailableCached() {
+        return cachedValueToJson(appUpdateAvailableCache);
+    }
+
+    public static String getReferralDeeplinkCached() {
+        SyncCallCache.Entry<ReferralDeeplink> entry = referralDeeplinkCache.get();
+        return referralDeeplinkResultToJson(entry.value, referralDeeplinkCache.isStale(entry));
+    }
+
+    /**
+     * Sets how long the result of a synchronous call is served from cache before being refreshed
+     * in the background, 0 to call the billing client every time. {@code call} is one of
+     * IsReady, IsFeatureSupported, IsAppUpdateAvailable or GetReferralDeeplink.
+     */
+    public static void setSyncCallCacheTtl(String call, long ttlMillis) {
+        switch (call) {
+            case "IsReady":
+                isReadyCache.setTtlMillis(ttlMillis);
+                break;
+            case "IsFeatureSupported":
+                featureSupportCacheTtlMillis = ttlMillis;
+                for (SyncCallCache<BillingResult> cache : featureSupportCaches.values()) {
+                    cache.setTtlMillis(ttlMillis);
+                }
+                break;
+            case "IsAppUpdateAvailable":
+                appUpdateAvailableCache.setTtlMillis(ttlMillis);
+                break;
+            case "GetReferralDeeplink":
+                referralDeeplinkCache.setTtlMillis(ttlMillis);
+                break;
+            default:
+                BridgeLog.w(TAG, "Unknown synchronous call: " + call);
+                return;
+        }
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Cache TTL of " + call + " set to ms: ", ttlMillis);
+        }
+    }
+
+    /**
+     * Declares the feature types the game asks about, so that their support is fetched in the
+     * background on every connection instead of on the first {@link #isFeatureSupportedCached}.
+     */
+    public static void setPrefetchedFeatureTypes(int[] features) {
+        boolean connected = connectionManager.isConnected();
+        for (int feature : features) {
+            SyncCallCache<BillingResult> cache = getFeatureSupportCache(feature);
+            if (connected) {
+                cache.refresh();
+            }
+        }
+        BridgeLog.d(TAG, "Prefetched feature types: ", features.length);
+    }
+
     public static void launchAppUpdateDialog() {
         billingClient.launchAppUpdateDialog(UnityPlayer.currentActivity);
-        Log.d(TAG, "Launched app update dialog.");
+        BridgeLog.d(TAG, "Launched app update dialog.");
     }
 
     public static void launchAppUpdateStore() {
         billingClient.launchAppUpdateStore(UnityPlayer.currentActivity);
-        Log.d(TAG, "Launched app update store.");
+        BridgeLog.d(TAG, "Launched app update store.");
+    }
+
+    /**
+     * Returns the state and counters of the billing service connection as JSON.
+     */
+    public static String getConnectionMetrics() {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        connectionManager.writeMetrics(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Returns the latency histograms, call counters and payload sizes of the bridge operations,
+     * together with the connection metrics, as JSON.
+     */
+    public static String getMetricsSnapshot() {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        metrics.writeSnapshot(writer);
+        connectionManager.writeMetrics(writer.name("Connection"));
+        writer.endObject();
+        return writer.toString();
+    }
+
+    public static void setMetricsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+        BridgeLog.d(TAG, "Metrics enabled: ", enabled);
+    }
+
+    /**
+     * Returns the last billing events, oldest first, as JSON. Meant to be attached to the report
+     * of a failed purchase.
+     */
+    public static String getFlightRecorderDump() {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        flightRecorder.writeDump(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Starts recording every callback sent to Unity to {@code fileName}, a path relative to the
+     * files directory of the app or an absolute one, and returns the absolute path of the trace,
+     * or an empty string if it could not be created. See {@link CallbackTraceRecorder}.
+     */
+    public static String startCallbackTrace(String fileName) {
+        File file = new File(fileName);
+        if (!file.isAbsolute()) {
+            file = new File(UnityPlayer.currentActivity.getFilesDir(), fileName);
+        }
+        return callbackTraceRecorder.start(file) ? file.getAbsolutePath() : "";
+    }
+
+    /**
+     * Stops recording callbacks and returns the absolute path of the trace, or an empty string if
+     * no trace was being recorded.
+     */
+    public static String stopCallbackTrace() {
+        File file = callbackTraceRecorder.stop();
+        return file == null ? "" : file.getAbsolutePath();
+    }
+
+    /**
+     * Sets the minimum level of the bridge logs, using the android.util.Log priorities, or 8 to
+     * disable them. Debug logs are disabled by default.
+     */
+    public static void setLogLevel(int level) {
+        BridgeLog.setLevel(level);
+    }
+
+    /**
+     * Returns the generation of the fetched product details, bumped every time a product details
+     * response is stored. It matches the Generation of the latest ProductDetailsResponseCallback.
+     */
+    public static long getProductDetailsGeneration() {
+        return fetchedProductDetailsStore.getGeneration();
+    }
+
+    /**
+     * Selects the serializer of the purchases and product details callbacks: the streaming writer
+     * (default) or the org.json tree, kept as a fallback to compare outputs.
+     */
+    public static void setStreamingJsonSerializerEnabled(boolean enabled) {
+        streamingJsonSerializerEnabled = enabled;
+        BridgeLog.d(TAG, "Streaming JSON serializer enabled: ", enabled);
+    }
+
+    /**
+     * When enabled, callbacks are queued instead of being sent one by one with UnitySendMessage,
+     * and Unity drains them once per frame with {@link #pollEvents()}, in the order they were sent.
+     * Disabling it delivers the queued events with UnitySendMessage.
+     */
+    public static void setEventBatchingEnabled(boolean enabled) {
+        eventBatchingEnabled = enabled;
+        if (!enabled) {
+            eventQueue.flush(AptoideBillingSDKUnityBridge::sendUnityMessageDirectly);
+        }
+        BridgeLog.d(TAG, "Event batching enabled: ", enabled);
+    }
+
+    /**
+     * Returns every queued callback as a single batch payload, or an empty string if there are
+     * none.
+     */
+    public static String pollEvents() {
+        if (eventQueue.isEmpty()) {
+            return "";
+        }
+        return eventQueue.drainToJson();
+    }
+
+    /**
+     * When enabled, purchases and product details results are sent to Unity as the id of a
+     * binary payload (BinaryPayloadCallback) instead of as JSON. See {@link BridgeBinaryPayloads}.
+     */
+    public static void setBinaryPayloadsEnabled(boolean enabled) {
+        binaryPayloadsEnabled = enabled;
+        BridgeLog.d(TAG, "Binary payloads enabled: ", enabled);
+    }
+
+    public static ByteBuffer getBinaryPayloadBuffer() {
+        return binaryPayloads.getBuffer();
+    }
+
+    /**
+     * Returns the generation of the buffer returned by {@link #getBinaryPayloadBuffer()}, which
+     * changes whenever the buffer is replaced.
+     */
+    public static int getBinaryPayloadBufferGeneration() {
+        return binaryPayloads.getBufferGeneration();
+    }
+
+    /**
+     * Encodes the binary payload with the given id into the buffer returned by
+     * {@link #getBinaryPayloadBuffer()} and returns its length, or -1 if it was already read.
+     */
+    public static int encodeBinaryPayload(int payloadId) {
+        long startNanos = metrics.start();
+        int length = binaryPayloads.encode(payloadId);
+        if (length >= 0) {
+            metrics.recordPayload(BridgeMetrics.OP_ENCODE_BINARY_PAYLOAD, startNanos, length);
+        }
+        return length;
+    }
+
+    private static void recordOperation(int operation, int responseCode, long startNanos,
+            int size) {
+        metrics.record(operation, responseCode, startNanos);
+        flightRecorder.record(BridgeMetrics.getOperationName(operation), responseCode, startNanos,
+                size);
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private static SyncCallCache<BillingResult> getFeatureSupportCache(int feature) {
+        SyncCallCache<BillingResult> cache = featureSupportCaches.get(feature);
+        if (cache == null) {
+            SyncCallCache<BillingResult> newCache =
+                    new SyncCallCache<>(() -> billingClient.isFeatureSupported(feature),
+                            syncCallExecutor, featureSupportCacheTtlMillis);
+            cache = featureSupportCaches.putIfAbsent(feature, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    private static void prefetchSyncCalls() {
+        appUpdateAvailableCache.refresh();
+        referralDeeplinkCache.refresh();
+        for (SyncCallCache<BillingResult> cache : featureSupportCaches.values()) {
+            cache.refresh();
+        }
+    }
+
+    private static void invalidateSyncCalls() {
+        // Known without asking the client, and must not be served as true until reconnected
+        isReadyCache.put(false);
+        appUpdateAvailableCache.invalidate();
+        referralDeeplinkCache.invalidate();
+        for (SyncCallCache<BillingResult> cache : featureSupportCaches.values()) {
+            cache.invalidate();
+        }
+    }
+
+    private static String cachedValueToJson(SyncCallCache<Boolean> cache) {
+        SyncCallCache.Entry<Boolean> entry = cache.get();
+        return BridgeJsonWriter.obtain()
+                .beginObject()
+                .field("Value", entry.value)
+                .field("IsStale", cache.isStale(entry))
+                .endObject()
+                .toString();
+    }
+
+    private static void sendBinaryPayload(int payloadId) {
+        sendUnityMessage("BinaryPayloadCallback", Integer.toString(payloadId));
+    }
+
+    private static void sendUnityMessage(String methodName, String payload) {
+        if (callbackTraceRecorder.isRecording()) {
+            callbackTraceRecorder.record(methodName, payload);
+        }
+        if (eventBatchingEnabled) {
+            eventQueue.offer(methodName, payload);
+            if (!eventBatchingEnabled) {
+                // Disabled while queueing, so Unity no longer drains the queue
+                eventQueue.flush(AptoideBillingSDKUnityBridge::sendUnityMessageDirectly);
+            }
+            return;
+        }
+        sendUnityMessageDirectly(methodName, payload);
+    }
+
+    private static void sendUnityMessageDirectly(String methodName, String payload) {
+        UnityPlayer.UnitySendMessage(unityClassName, methodName, payload);
+    }
+
+    private static void sendCachedProductCatalog() {
+        List<ProductDetailsCatalogCache.Entry> entries = productCatalogCache.load();
+        if (entries.isEmpty() || productDetailsReceived) {
+            return;
+        }
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Sending " + entries.size()
+                    + " product details from the catalog cache.");
+        }
+        sendUnityMessage("ProductDetailsResponseCallback", cachedProductCatalogToJson(entries));
+    }
+
+    private static void refreshCachedProductCatalog() {
+        if (!productCatalogRefreshPending) {
+            return;
+        }
+        productCatalogRefreshPending = false;
+        List<String> productIds = new ArrayList<>();
+        List<String> productTypes = new ArrayList<>();
+        for (ProductDetailsCatalogCache.Entry entry : productCatalogCache.load()) {
+            productIds.add(entry.productId);
+            productTypes.add(entry.productType);
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Refreshing " + productIds.size() + " cached products.");
+        }
+        queryProductDetailsAsync(productIds, productTypes);
+    }
+
+    private static void cacheProductCatalog(List<ProductDetails> productDetailsList) {
+        List<ProductDetailsCatalogCache.Entry> entries = new ArrayList<>();
+        for (ProductDetails productDetails : productDetailsList) {
+            // Usually a hit: the fragment was rendered for the callback that delivered it
+            entries.add(productCatalogCache.newEntry(productDetails.getProductId(),
+                    productDetails.getProductType(),
+                    productDetailsFragmentCache.getFragment(productDetails)));
+        }
+        ProductDetailsCatalogCache cache = productCatalogCache;
+        if (cache.put(entries)) {
+            // Coalesces the responses of a catalog refresh into a single write
+            connectionScheduler.schedule(() -> backgroundExecutor.execute(cache::flush),
+                    PRODUCT_CATALOG_CACHE_WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
     private static String purchasesResponseResultToJson(BillingResult billingResult,
             List<Purchase> purchases) {
+        long startNanos = metrics.start();
+        String json = streamingJsonSerializerEnabled
+                ? purchasesResponseResultToJsonStream(billingResult, purchases)
+                : purchasesResponseResultToJsonTree(billingResult, purchases);
+        metrics.recordPayload(BridgeMetrics.OP_SERIALIZE_PURCHASES, startNanos, json.length());
+        return json;
+    }
+
+    private static String purchasesResponseResultToJsonStream(BillingResult billingResult,
+            List<Purchase> purchases) {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writeBillingResult(writer.name("BillingResult"), billingResult);
+        writer.name("Purchases").beginArray();
+        for (int i = 0; i < purchases.size(); i++) {
+            writePurchase(writer, purchases.get(i));
+        }
+        writer.endArray();
+        writer.endObject();
+        return writer.toString();
+    }
+
+    private static void sendPurchasesDelta(String productType, BillingResult billingResult,
+            List<Purchase> purchases) {
+        PurchaseSyncTracker.Delta delta;
+        if (billingResult.getResponseCode() == RESPONSE_CODE_OK && purchases != null) {
+            delta = purchaseSyncTracker.sync(productType, purchases);
+        } else {
+            // Nothing changed on a failed query, the last delta is still current
+            delta = new PurchaseSyncTracker.Delta(purchaseSyncTracker.getSequence(productType),
+                    false);
+        }
+        sendUnityMessage("PurchasesDeltaResponseCallback",
+                purchasesDeltaToJson(productType, billingResult, delta));
+    }
+
+    private static String purchasesDeltaToJson(String productType, BillingResult billingResult,
+            PurchaseSyncTracker.Delta delta) {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writeBillingResult(writer.name("BillingResult"), billingResult);
+        writer.field("ProductType", productType);
+        writer.field("Sequence", delta.sequence);
+        writer.field("IsFullResync", delta.fullResync);
+        writer.name("Added").beginArray();
+        for (int i = 0; i < delta.added.size(); i++) {
+            writePurchase(writer, delta.added.get(i));
+        }
+        writer.endArray();
+        writer.name("Changed").beginArray();
+        for (int i = 0; i < delta.changed.size(); i++) {
+            writePurchase(writer, delta.changed.get(i));
+        }
+        writer.endArray();
+        writer.name("Removed").beginArray();
+        for (int i = 0; i < delta.removed.size(); i++) {
+            writer.value(delta.removed.get(i));
+        }
+        writer.endArray();
+        writer.endObject();
+        return writer.toString();
+    }
+
+    private static String purchasesResponseResultToJsonTree(BillingResult billingResult,
+            List<Purchase> purchases) {
         JSONObject jsonObject = new JSONObject();
         try {
             JSONObject billingResultJsonObject = getBillingResultJsonObject(billingResult);
@@ -242,14 +1005,59 @@ public class AptoideBillingSDKUnityBridge {
             }
             jsonObject.put("Purchases", purchasesJsonArray);
         } catch (JSONException exception) {
-            Log.e(TAG, "purchasesResponseResultToJson: ", exception);
+            BridgeLog.e(TAG, "purchasesResponseResultToJsonTree: ", exception);
             return new JSONObject().toString();
         }
         return jsonObject.toString();
     }
 
-    private static String productDetailsResultToJson(BillingResult billingResult,
-            QueryProductDetailsResult productDetailsResult) {
+    private static String productDetailsResultToJson(int requestId, long generation,
+            BillingResult billingResult, List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        long startNanos = metrics.start();
+        String json = streamingJsonSerializerEnabled
+                ? productDetailsResultToJsonStream(requestId, generation, billingResult,
+                        productDetailsList, unfetchedProductList)
+                : productDetailsResultToJsonTree(requestId, generation, billingResult,
+                        productDetailsList, unfetchedProductList);
+        metrics.recordPayload(BridgeMetrics.OP_SERIALIZE_PRODUCT_DETAILS, startNanos,
+                json.length());
+        return json;
+    }
+
+    private static String productDetailsResultToJsonStream(int requestId, long generation,
+            BillingResult billingResult, List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writeBillingResult(writer.name("BillingResult"), billingResult);
+        writer.name("ProductDetailsResult").beginObject();
+        writer.name("ProductDetailsList").beginArray();
+        for (int i = 0; i < productDetailsList.size(); i++) {
+            writer.rawValue(
+                    productDetailsFragmentCache.getFragment(productDetailsList.get(i)));
+        }
+        writer.endArray();
+        writer.name("UnfetchedProductList").beginArray();
+        for (int i = 0; i < unfetchedProductList.size(); i++) {
+            UnfetchedProduct unfetchedProduct = unfetchedProductList.get(i);
+            writer.beginObject()
+                    .field("ProductId", unfetchedProduct.getProductId())
+                    .field("ProductType", unfetchedProduct.getProductType())
+                    .field("StatusCode", unfetchedProduct.getStatusCode())
+                    .endObject();
+        }
+        writer.endArray();
+        writer.field("RequestId", requestId);
+        writer.field("Generation", generation);
+        writer.endObject();
+        writer.endObject();
+        return writer.toString();
+    }
+
+    private static String productDetailsResultToJsonTree(int requestId, long generation,
+            BillingResult billingResult, List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
         JSONObject jsonObject = new JSONObject();
         try {
             JSONObject billingResultJsonObject = getBillingResultJsonObject(billingResult);
@@ -257,57 +1065,84 @@ public class AptoideBillingSDKUnityBridge {
 
             JSONObject productDetailsResultJsonObject = new JSONObject();
             JSONArray productDetailsJsonArray = new JSONArray();
-            for (ProductDetails productDetails : productDetailsResult.getProductDetailsList()) {
-                JSONObject productDetailsJsonObject = new JSONObject();
-
-                productDetailsJsonObject.put("ProductId", productDetails.getProductId());
-                productDetailsJsonObject.put("ProductType", productDetails.getProductType());
-                productDetailsJsonObject.put("Title", productDetails.getTitle());
-
-                if (productDetails.getDescription() != null) {
-                    productDetailsJsonObject.put("Description", productDetails.getDescription());
-                }
-
-                // One-time purchase
-                if (productDetails.getOneTimePurchaseOfferDetails() != null) {
-                    JSONObject oneTimeOfferJson = getOneTimePurchaseOfferDetailsJsonObject(
-                            productDetails);
-
-                    productDetailsJsonObject.put("OneTimePurchaseOfferDetails", oneTimeOfferJson);
-                }
-
-                // Subscription offers
-                if (productDetails.getSubscriptionOfferDetails() != null) {
-                    JSONArray subscriptionOffersArray = getSubscriptionOfferDetailsJsonArray(
-                            productDetails);
-                    productDetailsJsonObject.put("SubscriptionOfferDetails",
-                            subscriptionOffersArray);
-                }
-
-                productDetailsJsonArray.put(productDetailsJsonObject);
+            for (ProductDetails productDetails : productDetailsList) {
+                productDetailsJsonArray.put(getProductDetailsJsonObject(productDetails));
             }
             productDetailsResultJsonObject.put("ProductDetailsList", productDetailsJsonArray);
 
             JSONArray unfetchedProductsJsonArray = getUnfetchedProductsJsonArray(
-                    productDetailsResult);
+                    unfetchedProductList);
             productDetailsResultJsonObject.put("UnfetchedProductList",
                     unfetchedProductsJsonArray);
+            productDetailsResultJsonObject.put("RequestId", requestId);
+            productDetailsResultJsonObject.put("Generation", generation);
 
             jsonObject.put("ProductDetailsResult", productDetailsResultJsonObject);
         } catch (JSONException exception) {
-            Log.e(TAG, "productDetailsResultToJson: ", exception);
+            BridgeLog.e(TAG, "productDetailsResultToJsonTree: ", exception);
             return new JSONObject().toString();
         }
         return jsonObject.toString();
     }
 
+    private static String cachedProductCatalogToJson(
+            List<ProductDetailsCatalogCache.Entry> entries) {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writer.name("BillingResult").beginObject()
+                .field("ResponseCode", RESPONSE_CODE_OK)
+                .endObject();
+        writer.name("ProductDetailsResult").beginObject();
+        writer.name("ProductDetailsList").beginArray();
+        for (int i = 0; i < entries.size(); i++) {
+            writer.rawValue(entries.get(i).productDetailsJson);
+        }
+        writer.endArray();
+        writer.name("UnfetchedProductList").beginArray().endArray();
+        writer.field("IsStale", true);
+        writer.endObject();
+        writer.endObject();
+        return writer.toString();
+    }
+
+    @NonNull
+    private static JSONObject getProductDetailsJsonObject(ProductDetails productDetails)
+            throws JSONException {
+        JSONObject productDetailsJsonObject = new JSONObject();
+
+        productDetailsJsonObject.put("ProductId", productDetails.getProductId());
+        productDetailsJsonObject.put("ProductType", productDetails.getProductType());
+        productDetailsJsonObject.put("Title", productDetails.getTitle());
+
+        if (productDetails.getDescription() != null) {
+            productDetailsJsonObject.put("Description", productDetails.getDescription());
+        }
+
+        // One-time purchase
+        if (productDetails.getOneTimePurchaseOfferDetails() != null) {
+            JSONObject oneTimeOfferJson = getOneTimePurchaseOfferDetailsJsonObject(
+                    productDetails);
+
+            productDetailsJsonObject.put("OneTimePurchaseOfferDetails", oneTimeOfferJson);
+        }
+
+        // Subscription offers
+        if (productDetails.getSubscriptionOfferDetails() != null) {
+            JSONArray subscriptionOffersArray = getSubscriptionOfferDetailsJsonArray(
+                    productDetails);
+            productDetailsJsonObject.put("SubscriptionOfferDetails",
+                    subscriptionOffersArray);
+        }
+
+        return productDetailsJsonObject;
+    }
+
     @NonNull
     private static JSONArray getUnfetchedProductsJsonArray(
-            QueryProductDetailsResult queryProductDetailsResult)
+            List<UnfetchedProduct> unfetchedProductList)
             throws JSONException {
         JSONArray unfetchedProductsJsonArray = new JSONArray();
-        for (UnfetchedProduct unfetchedProduct :
-                queryProductDetailsResult.getUnfetchedProductList()) {
+        for (UnfetchedProduct unfetchedProduct : unfetchedProductList) {
             JSONObject unfetchedProductJsonObject = new JSONObject();
             unfetchedProductJsonObject.put("ProductId", unfetchedProduct.getProductId());
             unfetchedProductJsonObject.put("ProductType", unfetchedProduct.getProductType());
@@ -403,13 +1238,45 @@ public class AptoideBillingSDKUnityBridge {
             jsonObject.put("BillingResult", billingResultJsonObject);
             jsonObject.put("PurchaseToken", purchaseToken);
         } catch (JSONException exception) {
-            Log.e(TAG, "consumeResultToJson: ", exception);
+            BridgeLog.e(TAG, "consumeResultToJson: ", exception);
             return new JSONObject().toString();
         }
         return jsonObject.toString();
     }
 
-    private static String referralDeeplinkResultToJson(ReferralDeeplink referralDeeplink) {
+    private static String asyncBillingResultToJson(int requestId, BillingResult billingResult) {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writer.field("RequestId", requestId);
+        writeBillingResult(writer.name("BillingResult"), billingResult);
+        writer.endObject();
+        return writer.toString();
+    }
+
+    private static String consumeBatchResultToJson(int batchId, List<String> purchaseTokens,
+            List<BillingResult> billingResults) {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writer.field("BatchId", batchId);
+        writer.name("Results").beginArray();
+        for (int i = 0; i < purchaseTokens.size(); i++) {
+            writer.beginObject();
+            writeBillingResult(writer.name("BillingResult"), billingResults.get(i));
+            writer.field("PurchaseToken", purchaseTokens.get(i));
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        return writer.toString();
+    }
+
+    private static String referralDeeplinkResultToJson(ReferralDeeplink referralDeeplink,
+            Boolean isStale) {
+        return referralDeeplinkResultToJson(referralDeeplink, isStale, 0);
+    }
+
+    private static String referralDeeplinkResultToJson(ReferralDeeplink referralDeeplink,
+            Boolean isStale, int requestId) {
         JSONObject jsonObject = new JSONObject();
         try {
             JSONObject billingResultJsonObject = getBillingResultJsonObject(
@@ -421,15 +1288,21 @@ public class AptoideBillingSDKUnityBridge {
             if (referralDeeplink.getFallbackDeeplink() != null) {
                 jsonObject.put("FallbackDeeplink", referralDeeplink.getFallbackDeeplink());
             }
+            if (isStale != null) {
+                jsonObject.put("IsStale", isStale);
+            }
+            if (requestId != 0) {
+                jsonObject.put("RequestId", requestId);
+            }
         } catch (JSONException exception) {
-            Log.e(TAG, "referralDeeplinkResultToJson: ", exception);
+            BridgeLog.e(TAG, "referralDeeplinkResultToJson: ", exception);
             return new JSONObject().toString();
         }
         return jsonObject.toString();
     }
 
     private static ProductDetails getProductDetailsFromProductId(String productId) {
-        return fetchedProductDetailsMap.get(productId);
+        return fetchedProductDetailsStore.get(productId);
     }
 
     private static JSONObject getBillingResultJsonObject(BillingResult billingResult) {
@@ -442,8 +1315,123 @@ public class AptoideBillingSDKUnityBridge {
             }
             return billingResultJsonObject;
         } catch (JSONException exception) {
-            Log.e(TAG, "getBillingResultJsonObject: ", exception);
+            BridgeLog.e(TAG, "getBillingResultJsonObject: ", exception);
             return new JSONObject();
         }
     }
+
+    private static void writeBillingResult(BridgeJsonWriter writer, BillingResult billingResult) {
+        writer.beginObject();
+        writer.field("ResponseCode", billingResult.getResponseCode());
+        String debugMessage = billingResult.getDebugMessage();
+        if (debugMessage != null && !debugMessage.isEmpty() && !debugMessage.equals("null")) {
+            writer.field("DebugMessage", debugMessage);
+        }
+        writer.endObject();
+    }
+
+    private static void writePurchase(BridgeJsonWriter writer, Purchase purchase) {
+        writer.beginObject();
+        if (purchase.getAccountIdentifiers() != null
+                && purchase.getAccountIdentifiers().getObfuscatedAccountId() != null) {
+            writer.name("AccountIdentifiers").beginObject()
+                    .field("ObfuscatedAccountId",
+                            purchase.getAccountIdentifiers().getObfuscatedAccountId())
+                    .endObject();
+        }
+        writer.field("DeveloperPayload", purchase.getDeveloperPayload());
+        writer.field("OrderId", purchase.getOrderId());
+        writer.field("OriginalJson", purchase.getOriginalJson());
+        writer.field("PackageName", purchase.getPackageName());
+
+        writer.name("Products").beginArray();
+        List<String> products = purchase.getProducts();
+        for (int i = 0; i < products.size(); i++) {
+            writer.value(products.get(i));
+        }
+        writer.endArray();
+
+        writer.field("PurchaseState", purchase.getPurchaseState());
+        writer.field("PurchaseTime", purchase.getPurchaseTime());
+        writer.field("PurchaseToken", purchase.getPurchaseToken());
+        writer.field("Signature", purchase.getSignature());
+        writer.field("IsAutoRenewing", purchase.isAutoRenewing());
+        writer.endObject();
+    }
+
+    private static void writeProductDetails(BridgeJsonWriter writer,
+            ProductDetails productDetails) {
+        writer.beginObject();
+        writer.field("ProductId", productDetails.getProductId());
+        writer.field("ProductType", productDetails.getProductType());
+        writer.field("Title", productDetails.getTitle());
+        writer.field("Description", productDetails.getDescription());
+
+        // One-time purchase
+        ProductDetails.OneTimePurchaseOfferDetails offer =
+                productDetails.getOneTimePurchaseOfferDetails();
+        if (offer != null) {
+            writer.name("OneTimePurchaseOfferDetails").beginObject()
+                    .field("FormattedPrice", offer.getFormattedPrice())
+                    .field("PriceAmountMicros", offer.getPriceAmountMicros())
+                    .field("PriceCurrencyCode", offer.getPriceCurrencyCode())
+                    .field("AppcFormattedPrice", offer.getAppcFormattedPrice())
+                    .field("AppcPriceAmountMicros", offer.getAppcPriceAmountMicros())
+                    .field("AppcPriceCurrencyCode", offer.getAppcPriceCurrencyCode())
+                    .field("FiatFormattedPrice", offer.getFiatFormattedPrice())
+                    .field("FiatPriceAmountMicros", offer.getFiatPriceAmountMicros())
+                    .field("FiatPriceCurrencyCode", offer.getFiatPriceCurrencyCode())
+                    .endObject();
+        }
+
+        // Subscription offers
+        List<ProductDetails.SubscriptionOfferDetails> offerDetails =
+                productDetails.getSubscriptionOfferDetails();
+        if (offerDetails != null) {
+            writer.name("SubscriptionOfferDetails").beginArray();
+            for (int i = 0; i < offerDetails.size(); i++) {
+                writeSubscriptionOfferDetails(writer, offerDetails.get(i));
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    private static void writeSubscriptionOfferDetails(BridgeJsonWriter writer,
+            ProductDetails.SubscriptionOfferDetails offerDetail) {
+        writer.beginObject();
+
+        // Pricing phases
+        writer.name("PricingPhases").beginObject();
+        writer.name("PricingPhaseList").beginArray();
+        List<ProductDetails.PricingPhase> pricingPhases =
+                offerDetail.getPricingPhases().getPricingPhaseList();
+        for (int i = 0; i < pricingPhases.size(); i++) {
+            ProductDetails.PricingPhase pricingPhase = pricingPhases.get(i);
+            writer.beginObject()
+                    .field("BillingPeriod", pricingPhase.getBillingPeriod())
+                    .field("FormattedPrice", pricingPhase.getFormattedPrice())
+                    .field("PriceAmountMicros", pricingPhase.getPriceAmountMicros())
+                    .field("PriceCurrencyCode", pricingPhase.getPriceCurrencyCode())
+                    .field("AppcFormattedPrice", pricingPhase.getAppcFormattedPrice())
+                    .field("AppcPriceAmountMicros", pricingPhase.getAppcPriceAmountMicros())
+                    .field("AppcPriceCurrencyCode", pricingPhase.getAppcPriceCurrencyCode())
+                    .field("FiatFormattedPrice", pricingPhase.getFiatFormattedPrice())
+                    .field("FiatPriceAmountMicros", pricingPhase.getFiatPriceAmountMicros())
+                    .field("FiatPriceCurrencyCode", pricingPhase.getFiatPriceCurrencyCode())
+                    .endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+
+        // Trial details
+        ProductDetails.TrialDetails trialDetails = offerDetail.getTrialDetails();
+        if (trialDetails != null) {
+            writer.name("TrialDetails").beginObject()
+                    .field("Period", trialDetails.getPeriod())
+                    .field("PeriodEndDate", trialDetails.getPeriodEndDate())
+                    .endObject();
+        }
+        writer.endObject();
+    }
 }
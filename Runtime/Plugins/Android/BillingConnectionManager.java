@@ -0,0 +1,321 @@
+import com.aptoide.sdk.billing.AptoideBillingClient;
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.listeners.AptoideBillingClientStateListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the billing client connected and runs the asynchronous operations once it is.
+ *
+ * <p>Operations issued while the service is not connected wait in a bounded queue and are
+ * replayed in order as soon as the connection is set up, or failed with SERVICE_DISCONNECTED once
+ * their queue deadline expires. Disconnections and failed setups are retried with exponential
+ * backoff and full jitter until {@link #close()} is called. Only the first failed setup of a
+ * reconnect cycle is forwarded to the state listener, so that a long outage does not report every
+ * attempt; disconnections are always forwarded, including the one that follows {@link #close()}.
+ */
+class BillingConnectionManager {
+    private static final String TAG = "BillingConnectionManager";
+    private static final int RESPONSE_CODE_OK = 0;
+    private static final int RESPONSE_CODE_SERVICE_DISCONNECTED = -1;
+
+    enum State {
+        DISCONNECTED, CONNECTING, CONNECTED, CLOSED
+    }
+
+    interface Operation {
+        void execute();
+
+        void onFailed(BillingResult billingResult);
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final AptoideBillingClientStateListener stateListener;
+    private final int maxPendingOperations;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Random random = new Random();
+    private final ArrayDeque<PendingOperation> pendingOperations = new ArrayDeque<>();
+
+    private AptoideBillingClient billingClient;
+    private State state = State.DISCONNECTED;
+    private BillingResult lastSetupResult;
+    private ScheduledFuture<?> reconnectFuture;
+    private int reconnectAttempt = 0;
+    private boolean setupFailureReported = false;
+    private long connectStartedAt;
+
+    private long connectAttempts = 0;
+    private long connectFailures = 0;
+    private long disconnects = 0;
+    private long reconnects = 0;
+    private long lastConnectLatencyMillis = -1;
+    private long replayedOperations = 0;
+    private long expiredOperations = 0;
+    private long rejectedOperations = 0;
+
+    private final AptoideBillingClientStateListener connectionListener =
+            new AptoideBillingClientStateListener() {
+                @Override
+                public void onBillingSetupFinished(BillingResult billingResult) {
+                    onSetupFinished(billingResult);
+                }
+
+                @Override
+                public void onBillingServiceDisconnected() {
+                    onDisconnected();
+                }
+            };
+
+    BillingConnectionManager(ScheduledExecutorService scheduler,
+            AptoideBillingClientStateListener stateListener, int maxPendingOperations,
+            long initialBackoffMillis, long maxBackoffMillis) {
+        this.scheduler = scheduler;
+        this.stateListener = stateListener;
+        this.maxPendingOperations = maxPendingOperations;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Starts connecting the client. When the client is already connected the last setup result is
+     * delivered again, and when a connection is in progress its result will be delivered.
+     */
+    void connect(AptoideBillingClient client) {
+        BillingResult setupResult = null;
+        AptoideBillingClient connectingClient = null;
+        synchronized (this) {
+            // Asked for explicitly, so the next result is delivered even if it is a failure
+            setupFailureReported = false;
+            if (client != billingClient) {
+                billingClient = client;
+                state = State.DISCONNECTED;
+            }
+            if (state == State.CONNECTED) {
+                setupResult = lastSetupResult;
+            } else if (state != State.CONNECTING) {
+                reconnectAttempt = 0;
+                connectingClient = startConnecting(false);
+            }
+        }
+        if (setupResult != null) {
+            stateListener.onBillingSetupFinished(setupResult);
+        }
+        if (connectingClient != null) {
+            connectingClient.startConnection(connectionListener);
+        }
+    }
+
+    /**
+     * Stops reconnecting and fails every pending operation.
+     */
+    void close() {
+        List<PendingOperation> failedOperations;
+        synchronized (this) {
+            state = State.CLOSED;
+            cancelReconnect();
+            failedOperations = new ArrayList<>(pendingOperations);
+            pendingOperations.clear();
+        }
+        for (PendingOperation pendingOperation : failedOperations) {
+            fail(pendingOperation, "Billing connection ended.");
+        }
+    }
+
+    /**
+     * Runs the operation now if the service is connected, otherwise queues it until the connection
+     * is set up or {@code queueDeadlineMillis} elapse. The deadline only bounds the wait for the
+     * connection: once the operation runs, its result comes from the billing client alone. Once
+     * closed, the operation fails right away.
+     */
+    void execute(Operation operation, long queueDeadlineMillis) {
+        boolean runNow = false;
+        boolean rejected = false;
+        boolean closed = false;
+        AptoideBillingClient connectingClient = null;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                closed = true;
+            } else if (state == State.CONNECTED && billingClient.isReady()) {
+                runNow = true;
+            } else if (pendingOperations.size() >= maxPendingOperations) {
+                rejectedOperations++;
+                rejected = true;
+            } else {
+                PendingOperation pendingOperation = new PendingOperation(operation);
+                pendingOperations.add(pendingOperation);
+                pendingOperation.timeoutFuture = scheduler.schedule(
+                        () -> expire(pendingOperation), queueDeadlineMillis, TimeUnit.MILLISECONDS);
+                if (state == State.CONNECTED || state == State.DISCONNECTED) {
+                    // The client dropped the connection without notifying, or the backoff is
+                    // pending: there is work waiting, so reconnect right away.
+                    cancelReconnect();
+                    connectingClient = startConnecting(true);
+                }
+            }
+        }
+        if (runNow) {
+            operation.execute();
+        } else if (closed) {
+            operation.onFailed(newFailureResult("Billing connection ended."));
+        } else if (rejected) {
+            operation.onFailed(newFailureResult("Too many operations waiting for connection."));
+        } else if (connectingClient != null) {
+            connectingClient.startConnection(connectionListener);
+        }
+    }
+
+    synchronized boolean isConnected() {
+        return state == State.CONNECTED;
+    }
+
+    synchronized void writeMetrics(BridgeJsonWriter writer) {
+        writer.beginObject()
+                .field("State", state.name())
+                .field("ConnectAttempts", connectAttempts)
+                .field("ConnectFailures", connectFailures)
+                .field("Disconnects", disconnects)
+                .field("Reconnects", reconnects)
+                .field("LastConnectLatencyMillis", lastConnectLatencyMillis)
+                .field("PendingOperations", pendingOperations.size())
+                .field("ReplayedOperations", replayedOperations)
+                .field("ExpiredOperations", expiredOperations)
+                .field("RejectedOperations", rejectedOperations)
+                .endObject();
+    }
+
+    /**
+     * Moves to CONNECTING and returns the client, on which the caller must start the connection
+     * once it no longer holds the lock, since the client may answer on the calling thread.
+     */
+    private AptoideBillingClient startConnecting(boolean reconnecting) {
+        state = State.CONNECTING;
+        connectAttempts++;
+        if (reconnecting) {
+            reconnects++;
+        }
+        connectStartedAt = System.nanoTime();
+        return billingClient;
+    }
+
+    private void onSetupFinished(BillingResult billingResult) {
+        List<PendingOperation> replayOperations = new ArrayList<>();
+        boolean forwardResult = true;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return;
+            }
+            lastConnectLatencyMillis =
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartedAt);
+            if (billingResult.getResponseCode() == RESPONSE_CODE_OK) {
+                state = State.CONNECTED;
+                lastSetupResult = billingResult;
+                reconnectAttempt = 0;
+                setupFailureReported = false;
+                for (PendingOperation pendingOperation : pendingOperations) {
+                    pendingOperation.timeoutFuture.cancel(false);
+                    replayOperations.add(pendingOperation);
+                }
+                pendingOperations.clear();
+                replayedOperations += replayOperations.size();
+            } else {
+                connectFailures++;
+                state = State.DISCONNECTED;
+                forwardResult = !setupFailureReported;
+                setupFailureReported = true;
+                scheduleReconnect();
+            }
+        }
+        if (forwardResult) {
+            stateListener.onBillingSetupFinished(billingResult);
+        }
+        if (!replayOperations.isEmpty()) {
+            BridgeLog.d(TAG, "Pending operations replayed: ", replayOperations.size());
+        }
+        for (PendingOperation pendingOperation : replayOperations) {
+            pendingOperation.operation.execute();
+        }
+    }
+
+    private void onDisconnected() {
+        synchronized (this) {
+            // After close() the disconnection is expected: still report it, but do not reconnect
+            if (state != State.CLOSED) {
+                disconnects++;
+                state = State.DISCONNECTED;
+                scheduleReconnect();
+            }
+        }
+        stateListener.onBillingServiceDisconnected();
+    }
+
+    private void scheduleReconnect() {
+        cancelReconnect();
+        long backoffMillis = Math.min(maxBackoffMillis,
+                initialBackoffMillis << Math.min(reconnectAttempt, 20));
+        // Full jitter, anywhere up to the backoff, to spread reconnects of many clients
+        long delayMillis = (long) (random.nextDouble() * backoffMillis);
+        reconnectAttempt++;
+        if (BridgeLog.isDebugEnabled()) {
+            BridgeLog.d(TAG, "Reconnecting in " + delayMillis + "ms (attempt " + reconnectAttempt
+                    + ").");
+        }
+        reconnectFuture = scheduler.schedule(this::reconnect, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        AptoideBillingClient connectingClient;
+        synchronized (this) {
+            reconnectFuture = null;
+            if (state != State.DISCONNECTED) {
+                return;
+            }
+            connectingClient = startConnecting(true);
+        }
+        connectingClient.startConnection(connectionListener);
+    }
+
+    private void cancelReconnect() {
+        if (reconnectFuture != null) {
+            reconnectFuture.cancel(false);
+            reconnectFuture = null;
+        }
+    }
+
+    private void expire(PendingOperation pendingOperation) {
+        synchronized (this) {
+            if (!pendingOperations.remove(pendingOperation)) {
+                return;
+            }
+            expiredOperations++;
+        }
+        fail(pendingOperation, "Timed out waiting for the billing service connection.");
+    }
+
+    private void fail(PendingOperation pendingOperation, String debugMessage) {
+        pendingOperation.timeoutFuture.cancel(false);
+        pendingOperation.operation.onFailed(newFailureResult(debugMessage));
+    }
+
+    private static BillingResult newFailureResult(String debugMessage) {
+        return BillingResult.newBuilder()
+                .setResponseCode(RESPONSE_CODE_SERVICE_DISCONNECTED)
+                .setDebugMessage(debugMessage)
+                .build();
+    }
+
+    private static class PendingOperation {
+        final Operation operation;
+        ScheduledFuture<?> timeoutFuture;
+
+        PendingOperation(Operation operation) {
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.Purchase;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact binary alternative to the JSON callback payloads.
+ *
+ * <p>Results are kept here under an id that is sent to Unity instead of the JSON payload. Unity
+ * then calls {@link #encode(int)} from its main thread, which writes the result into a reusable
+ * direct {@link ByteBuffer} that the C# side reads in place through its native address. Only the
+ * latest {@code maxPendingPayloads} results are kept, so that payloads Unity never reads, for
+ * instance while it is paused, do not pile up: older ones are evicted and encode as missing.
+ *
+ * <p>Layout, little-endian: a header with the format version and the payload kind, followed by the
+ * fields of the result in a fixed order. Strings are an int32 byte length ({@code -1} for null)
+ * followed by UTF-8 bytes, lists are an int32 count ({@code -1} for null) followed by the items,
+ * optional objects are a presence byte followed by their fields and booleans are a single byte.
+ * BinaryPayloadDecoder.cs must be kept in sync with this layout.
+ */
+class BridgeBinaryPayloads {
+    static final byte FORMAT_VERSION = 1;
+    static final byte KIND_PURCHASES_UPDATED = 1;
+    static final byte KIND_PURCHASES_RESPONSE = 2;
+    static final byte KIND_PRODUCT_DETAILS_RESPONSE = 3;
+
+    private static final String TAG = "BridgeBinaryPayloads";
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final int maxPendingPayloads;
+    private final ConcurrentHashMap<Integer, PendingPayload> pendingPayloads =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger nextPayloadId = new AtomicInteger(1);
+    private ByteBuffer buffer = newBuffer(INITIAL_CAPACITY);
+    private int bufferGeneration = 0;
+
+    BridgeBinaryPayloads(int maxPendingPayloads) {
+        this.maxPendingPayloads = maxPendingPayloads;
+    }
+
+    int addPurchases(byte kind, BillingResult billingResult, List<Purchase> purchases) {
+        PendingPayload payload = new PendingPayload(kind, billingResult);
+        payload.purchases = purchases;
+        return add(payload);
+    }
+
+    int addProductDetails(int requestId, long generation, BillingResult billingResult,
+            List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        PendingPayload payload = new PendingPayload(KIND_PRODUCT_DETAILS_RESPONSE, billingResult);
+        payload.requestId = requestId;
+        payload.generation = generation;
+        payload.productDetailsList = productDetailsList;
+        payload.unfetchedProductList = unfetchedProductList;
+        return add(payload);
+    }
+
+    /**
+     * Returns the buffer the payloads are encoded into. It is replaced while encoding a payload
+     * that may not fit, which bumps {@link #getBufferGeneration()}; the payload can still be
+     * shorter than the previous capacity, so the length alone does not tell.
+     */
+    synchronized ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the number of times the buffer was replaced.
+     */
+    synchronized int getBufferGeneration() {
+        return bufferGeneration;
+    }
+
+    /**
+     * Encodes the payload with the given id at the start of the buffer, forgets it and returns
+     * its length in bytes, or {@code -1} if there is no payload with that id.
+     */
+    synchronized int encode(int payloadId) {
+        PendingPayload payload = pendingPayloads.remove(payloadId);
+        if (payload == null) {
+            return -1;
+        }
+        buffer.clear();
+        putByte(FORMAT_VERSION);
+        putByte(payload.kind);
+        putBillingResult(payload.billingResult);
+        if (payload.kind == KIND_PRODUCT_DETAILS_RESPONSE) {
+            putProductDetailsResult(payload);
+        } else {
+            putPurchases(payload.purchases);
+        }
+        return buffer.position();
+    }
+
+    private int add(PendingPayload payload) {
+        int payloadId = nextPayloadId.getAndIncrement();
+        pendingPayloads.put(payloadId, payload);
+        // Ids are sequential, so the oldest payload still kept is the one added
+        // maxPendingPayloads ids ago
+        if (pendingPayloads.remove(payloadId - maxPendingPayloads) != null) {
+            BridgeLog.w(TAG, "Binary payload evicted before Unity read it: "
+                    + (payloadId - maxPendingPayloads));
+        }
+        return payloadId;
+    }
+
+    private void putBillingResult(BillingResult billingResult) {
+        putInt(billingResult.getResponseCode());
+        String debugMessage = billingResult.getDebugMessage();
+        if (debugMessage != null && (debugMessage.isEmpty() || debugMessage.equals("null"))) {
+            debugMessage = null;
+        }
+        putString(debugMessage);
+    }
+
+    private void putPurchases(List<Purchase> purchases) {
+        putInt(purchases.size());
+        for (int i = 0; i < purchases.size(); i++) {
+            Purchase purchase = purchases.get(i);
+            putString(purchase.getAccountIdentifiers() != null
+                    ? purchase.getAccountIdentifiers().getObfuscatedAccountId() : null);
+            putString(purchase.getDeveloperPayload());
+            putString(purchase.getOrderId());
+            putString(purchase.getOriginalJson());
+            putString(purchase.getPackageName());
+            List<String> products = purchase.getProducts();
+            putInt(products.size());
+            for (int j = 0; j < products.size(); j++) {
+                putString(products.get(j));
+            }
+            putInt(purchase.getPurchaseState());
+            putLong(purchase.getPurchaseTime());
+            putString(purchase.getPurchaseToken());
+            putString(purchase.getSignature());
+            putBoolean(purchase.isAutoRenewing());
+        }
+    }
+
+    private void putProductDetailsResult(PendingPayload payload) {
+        putInt(payload.requestId);
+        putLong(payload.generation);
+
+        List<ProductDetails> productDetailsList = payload.productDetailsList;
+        putInt(productDetailsList.size());
+        for (int i = 0; i < productDetailsList.size(); i++) {
+            putProductDetails(productDetailsList.get(i));
+        }
+
+        List<UnfetchedProduct> unfetchedProductList = payload.unfetchedProductList;
+        putInt(unfetchedProductList.size());
+        for (int i = 0; i < unfetchedProductList.size(); i++) {
+            UnfetchedProduct unfetchedProduct = unfetchedProductList.get(i);
+            putString(unfetchedProduct.getProductId());
+            putString(unfetchedProduct.getProductType());
+            putInt(unfetchedProduct.getStatusCode());
+        }
+    }
+
+    private void putProductDetails(ProductDetails productDetails) {
+        putString(productDetails.getProductId());
+        putString(productDetails.getProductType());
+        putString(productDetails.getTitle());
+        putString(productDetails.getDescription());
+
+        ProductDetails.OneTimePurchaseOfferDetails offer =
+                productDetails.getOneTimePurchaseOfferDetails();
+        putBoolean(offer != null);
+        if (offer != null) {
+            putString(offer.getFormattedPrice());
+            putLong(offer.getPriceAmountMicros());
+            putString(offer.getPriceCurrencyCode());
+            putString(offer.getAppcFormattedPrice());
+            putLong(offer.getAppcPriceAmountMicros());
+            putString(offer.getAppcPriceCurrencyCode());
+            putString(offer.getFiatFormattedPrice());
+            putLong(offer.getFiatPriceAmountMicros());
+            putString(offer.getFiatPriceCurrencyCode());
+        }
+
+        List<ProductDetails.SubscriptionOfferDetails> offerDetails =
+                productDetails.getSubscriptionOfferDetails();
+        if (offerDetails == null) {
+            putInt(-1);
+            return;
+        }
+        putInt(offerDetails.size());
+        for (int i = 0; i < offerDetails.size(); i++) {
+            ProductDetails.SubscriptionOfferDetails offerDetail = offerDetails.get(i);
+            List<ProductDetails.PricingPhase> pricingPhases =
+                    offerDetail.getPricingPhases().getPricingPhaseList();
+            putInt(pricingPhases.size());
+            for (int j = 0; j < pricingPhases.size(); j++) {
+                ProductDetails.PricingPhase pricingPhase = pricingPhases.get(j);
+                putString(pricingPhase.getBillingPeriod());
+                putString(pricingPhase.getFormattedPrice());
+                putLong(pricingPhase.getPriceAmountMicros());
+                putString(pricingPhase.getPriceCurrencyCode());
+                putString(pricingPhase.getAppcFormattedPrice());
+                putLong(pricingPhase.getAppcPriceAmountMicros());
+                putString(pricingPhase.getAppcPriceCurrencyCode());
+                putString(pricingPhase.getFiatFormattedPrice());
+                putLong(pricingPhase.getFiatPriceAmountMicros());
+                putString(pricingPhase.getFiatPriceCurrencyCode());
+            }
+            ProductDetails.TrialDetails trialDetails = offerDetail.getTrialDetails();
+            putBoolean(trialDetails != null);
+            if (trialDetails != null) {
+                putString(trialDetails.getPeriod());
+                putString(trialDetails.getPeriodEndDate());
+            }
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        int length = value.length();
+        ensureCapacity(4 + length * 3);
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + 4);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - 4);
+    }
+
+    private void putBoolean(boolean value) {
+        putByte((byte) (value ? 1 : 0));
+    }
+
+    private void putByte(byte value) {
+        ensureCapacity(1);
+        buffer.put(value);
+    }
+
+    private void putInt(int value) {
+        ensureCapacity(4);
+        buffer.putInt(value);
+    }
+
+    private void putLong(long value) {
+        ensureCapacity(8);
+        buffer.putLong(value);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() >= extra) {
+            return;
+        }
+        ByteBuffer newBuffer =
+                newBuffer(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+        bufferGeneration++;
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static class PendingPayload {
+        final byte kind;
+        final BillingResult billingResult;
+        List<Purchase> purchases;
+        int requestId;
+        long generation;
+        List<ProductDetails> productDetailsList;
+        List<UnfetchedProduct> unfetchedProductList;
+
+        PendingPayload(byte kind, BillingResult billingResult) {
+            this.kind = kind;
+            this.billingResult = billingResult;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free queue of the callbacks waiting to be drained by Unity.
+ *
+ * <p>Any billing thread can produce events while the Unity main thread drains them once per frame
+ * with {@link #drainToJson()}. Billing callbacks must be neither lost nor reordered, so events
+ * past {@code capacity} are still queued: they are counted as overflowed so that Unity can warn
+ * that it drains too slowly. {@link #flush(Sink)} hands the queued events to another channel once
+ * Unity stops draining. Draining and flushing exclude each other, so every event is delivered once
+ * and in order.
+ */
+class BridgeEventQueue {
+    interface Sink {
+        void send(String method, String payload);
+    }
+
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final int capacity;
+
+    BridgeEventQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues the event, counting it as overflowed when the queue already holds {@code capacity}
+     * events.
+     */
+    void offer(String method, String payload) {
+        int newDepth = depth.incrementAndGet();
+        if (newDepth > capacity) {
+            overflowed.incrementAndGet();
+        }
+        events.offer(new Event(method, payload));
+        enqueued.incrementAndGet();
+        int currentHighWaterMark = highWaterMark.get();
+        while (newDepth > currentHighWaterMark
+                && !highWaterMark.compareAndSet(currentHighWaterMark, newDepth)) {
+            currentHighWaterMark = highWaterMark.get();
+        }
+    }
+
+    boolean isEmpty() {
+        return depth.get() == 0;
+    }
+
+    /**
+     * Removes every queued event and returns them as a single batch payload, together with the
+     * queue metrics.
+     */
+    synchronized String drainToJson() {
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writer.name("Events").beginArray();
+        Event event;
+        while ((event = events.poll()) != null) {
+            depth.decrementAndGet();
+            writer.beginObject()
+                    .field("Method", event.method)
+                    .field("Payload", event.payload)
+                    .endObject();
+        }
+        writer.endArray();
+        writer.field("Depth", depth.get());
+        writer.field("HighWaterMark", highWaterMark.get());
+        writer.field("Enqueued", enqueued.get());
+        writer.field("Overflowed", overflowed.get());
+        writer.endObject();
+        return writer.toString();
+    }
+
+    /**
+     * Removes every queued event and hands them to the sink, oldest first.
+     */
+    synchronized void flush(Sink sink) {
+        Event event;
+        while ((event = events.poll()) != null) {
+            depth.decrementAndGet();
+            sink.send(event.method, event.payload);
+        }
+    }
+
+    private static class Event {
+        final String method;
+        final String payload;
+
+        Event(String method, String payload) {
+            this.method = method;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Streaming JSON writer used to build the bridge callback payloads.
+ *
+ * <p>Writes straight into a growable char buffer that is kept between payloads, so serializing a
+ * result only allocates the final {@link String}. Strings are escaped the same way as Android's
+ * {@code org.json} (every {@code /}, and only the control characters below 0x20 as unicode
+ * escapes), and fields written with a {@code null} value are omitted just like
+ * {@code JSONObject.put} does, so on a device the output matches the tree-based serializer byte
+ * for byte.
+ *
+ * <p>Instances are not thread-safe; use {@link #obtain()} to get the writer of the calling thread.
+ */
+class BridgeJsonWriter {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<BridgeJsonWriter> threadWriter =
+            new ThreadLocal<BridgeJsonWriter>() {
+                @Override
+                protected BridgeJsonWriter initialValue() {
+                    return new BridgeJsonWriter();
+                }
+            };
+
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int length = 0;
+    private boolean[] firstInScope = new boolean[16];
+    private int depth = 0;
+
+    /**
+     * Returns the writer of the calling thread, emptied and ready for a new payload.
+     */
+    static BridgeJsonWriter obtain() {
+        BridgeJsonWriter writer = threadWriter.get();
+        writer.reset();
+        return writer;
+    }
+
+    void reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new char[INITIAL_CAPACITY];
+        }
+        length = 0;
+        depth = 0;
+    }
+
+    BridgeJsonWriter beginObject() {
+        beforeValue();
+        append('{');
+        enterScope();
+        return this;
+    }
+
+    BridgeJsonWriter endObject() {
+        depth--;
+        append('}');
+        return this;
+    }
+
+    BridgeJsonWriter beginArray() {
+        beforeValue();
+        append('[');
+        enterScope();
+        return this;
+    }
+
+    BridgeJsonWriter endArray() {
+        depth--;
+        append(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next object member; it must be followed by a value, an object or an
+     * array.
+     */
+    BridgeJsonWriter name(String name) {
+        beforeValue();
+        appendQuoted(name);
+        append(':');
+        firstInScope[depth - 1] = true;
+        return this;
+    }
+
+    BridgeJsonWriter field(String name, String value) {
+        if (value != null) {
+            name(name).value(value);
+        }
+        return this;
+    }
+
+    BridgeJsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    BridgeJsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    BridgeJsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            appendRaw("null");
+        } else {
+            appendQuoted(value);
+        }
+        return this;
+    }
+
+    BridgeJsonWriter value(long value) {
+        beforeValue();
+        appendLong(value);
+        return this;
+    }
+
+    BridgeJsonWriter value(boolean value) {
+        beforeValue();
+        appendRaw(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes an already serialized JSON value as is.
+     */
+    BridgeJsonWriter rawValue(String json) {
+        beforeValue();
+        appendRaw(json);
+        return this;
+    }
+
+    int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private void enterScope() {
+        if (depth == firstInScope.length) {
+            boolean[] newScopes = new boolean[depth * 2];
+            System.arraycopy(firstInScope, 0, newScopes, 0, depth);
+            firstInScope = newScopes;
+        }
+        firstInScope[depth++] = true;
+    }
+
+    private void beforeValue() {
+        if (depth == 0) {
+            return;
+        }
+        if (firstInScope[depth - 1]) {
+            firstInScope[depth - 1] = false;
+        } else {
+            append(',');
+        }
+    }
+
+    private void appendQuoted(String value) {
+        ensureCapacity(value.length() + 2);
+        buffer[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                case '/':
+                    append('\\');
+                    append(c);
+                    break;
+                case '\b':
+                    appendRaw("\\b");
+                    break;
+                case '\t':
+                    appendRaw("\\t");
+                    break;
+                case '\n':
+                    appendRaw("\\n");
+                    break;
+                case '\f':
+                    appendRaw("\\f");
+                    break;
+                case '\r':
+                    appendRaw("\\r");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        ensureCapacity(6);
+                        buffer[length++] = '\\';
+                        buffer[length++] = 'u';
+                        buffer[length++] = HEX_DIGITS[(c >> 12) & 0xF];
+                        buffer[length++] = HEX_DIGITS[(c >> 8) & 0xF];
+                        buffer[length++] = HEX_DIGITS[(c >> 4) & 0xF];
+                        buffer[length++] = HEX_DIGITS[c & 0xF];
+                    } else {
+                        append(c);
+                    }
+            }
+        }
+        append('"');
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            appendRaw("-9223372036854775808");
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buffer[length++] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+
+    private void appendRaw(String value) {
+        int valueLength = value.length();
+        ensureCapacity(valueLength);
+        value.getChars(0, valueLength, buffer, length);
+        length += valueLength;
+    }
+
+    private void append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            char[] newBuffer = new char[Math.max(buffer.length * 2, length + extra)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import android.util.Log;
+import com.aptoide.sdk.billing.BillingResult;
+
+/**
+ * Leveled logging for the bridge.
+ *
+ * <p>Messages are built only after the level check, and the overloads take their values as
+ * primitives or references, so a disabled call allocates nothing. Debug messages are off by
+ * default; warnings and errors are always logged unless the level is {@link #NONE}.
+ */
+final class BridgeLog {
+    static final int VERBOSE = Log.VERBOSE;
+    static final int DEBUG = Log.DEBUG;
+    static final int INFO = Log.INFO;
+    static final int WARN = Log.WARN;
+    static final int ERROR = Log.ERROR;
+    static final int NONE = Log.ASSERT + 1;
+
+    private static volatile int level = INFO;
+
+    private BridgeLog() {
+    }
+
+    static void setLevel(int newLevel) {
+        level = newLevel;
+    }
+
+    static boolean isDebugEnabled() {
+        return level <= DEBUG;
+    }
+
+    static void d(String tag, String message) {
+        if (level <= DEBUG) {
+            Log.d(tag, message);
+        }
+    }
+
+    static void d(String tag, String message, long value) {
+        if (level <= DEBUG) {
+            Log.d(tag, message + value);
+        }
+    }
+
+    static void d(String tag, String message, boolean value) {
+        if (level <= DEBUG) {
+            Log.d(tag, message + value);
+        }
+    }
+
+    static void d(String tag, String message, Object value) {
+        if (level <= DEBUG) {
+            Log.d(tag, message + value);
+        }
+    }
+
+    /**
+     * Logs the response code and debug message of a billing result after the message.
+     */
+    static void d(String tag, String message, BillingResult billingResult) {
+        if (level <= DEBUG) {
+            Log.d(tag, message + ": " + billingResult.getResponseCode() + " debugMessage: "
+                    + billingResult.getDebugMessage());
+        }
+    }
+
+    static void w(String tag, String message) {
+        if (level <= WARN) {
+            Log.w(tag, message);
+        }
+    }
+
+    static void e(String tag, String message) {
+        if (level <= ERROR) {
+            Log.e(tag, message);
+        }
+    }
+
+    static void e(String tag, String message, Throwable throwable) {
+        if (level <= ERROR) {
+            Log.e(tag, message, throwable);
+        }
+    }
+}
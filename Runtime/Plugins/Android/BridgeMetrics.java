@@ -0,0 +1,172 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency and payload metrics of the bridge operations.
+ *
+ * <p>Every operation has a fixed set of counters and, for each response code, a histogram of its
+ * latency with power-of-two microsecond buckets, all allocated up front in flat
+ * {@link AtomicLongArray}s. Recording is a few atomic increments with no allocation or locking, so
+ * the metrics can stay enabled in production. Percentiles are computed from the histograms when a
+ * snapshot is taken and report the upper bound of their bucket.
+ */
+class BridgeMetrics {
+    static final int OP_QUERY_PRODUCT_DETAILS = 0;
+    static final int OP_LAUNCH_BILLING_FLOW = 1;
+    static final int OP_QUERY_PURCHASES = 2;
+    static final int OP_QUERY_PURCHASES_DELTA = 3;
+    static final int OP_CONSUME = 4;
+    static final int OP_SERIALIZE_PRODUCT_DETAILS = 5;
+    static final int OP_SERIALIZE_PURCHASES = 6;
+    static final int OP_ENCODE_BINARY_PAYLOAD = 7;
+
+    private static final String[] OPERATION_NAMES = {
+            "QueryProductDetails",
+            "LaunchBillingFlow",
+            "QueryPurchases",
+            "QueryPurchasesDelta",
+            "Consume",
+            "SerializeProductDetails",
+            "SerializePurchases",
+            "EncodeBinaryPayload"
+    };
+
+    private static final int OPERATIONS = OPERATION_NAMES.length;
+    // Billing response codes go from -3 (SERVICE_TIMEOUT) to 12 (NETWORK_ERROR); any other code is
+    // counted in an extra slot
+    private static final int MIN_RESPONSE_CODE = -3;
+    private static final int MAX_RESPONSE_CODE = 12;
+    private static final int RESPONSE_CODES = MAX_RESPONSE_CODE - MIN_RESPONSE_CODE + 2;
+    private static final int OTHER_RESPONSE_CODE_SLOT = RESPONSE_CODES - 1;
+    // Bucket 0 counts latencies under 1us and bucket i those under 2^i us, the last one anything
+    // from about 18 minutes up
+    private static final int BUCKETS = 31;
+
+    private static final int CALLS = 0;
+    private static final int FAILURES = 1;
+    private static final int PAYLOADS = 2;
+    private static final int PAYLOAD_BYTES = 3;
+    private static final int MAX_PAYLOAD_BYTES = 4;
+    private static final int COUNTERS = 5;
+
+    private final AtomicLongArray latencyBuckets =
+            new AtomicLongArray(OPERATIONS * RESPONSE_CODES * BUCKETS);
+    private final AtomicLongArray counters = new AtomicLongArray(OPERATIONS * COUNTERS);
+    private volatile boolean enabled = true;
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    static String getOperationName(int operation) {
+        return OPERATION_NAMES[operation];
+    }
+
+    /**
+     * Returns the start time to pass to {@link #record}. It is taken even when the metrics are
+     * disabled, since the flight recorder uses it too.
+     */
+    long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a finished operation that was started at {@code startNanos}, if the metrics are
+     * enabled.
+     */
+    void record(int operation, int responseCode, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(micros, 0)));
+        int slot = getResponseCodeSlot(responseCode);
+        latencyBuckets.incrementAndGet((operation * RESPONSE_CODES + slot) * BUCKETS + bucket);
+        counters.incrementAndGet(operation * COUNTERS + CALLS);
+        if (responseCode != 0) {
+            counters.incrementAndGet(operation * COUNTERS + FAILURES);
+        }
+    }
+
+    /**
+     * Records a finished operation that produced a payload of {@code payloadBytes} bytes. JSON
+     * payloads are measured by their length, which is their UTF-8 size when they are ASCII.
+     */
+    void recordPayload(int operation, long startNanos, int payloadBytes) {
+        if (!enabled) {
+            return;
+        }
+        record(operation, 0, startNanos);
+        int index = operation * COUNTERS;
+        counters.incrementAndGet(index + PAYLOADS);
+        counters.addAndGet(index + PAYLOAD_BYTES, payloadBytes);
+        long maxPayloadBytes = counters.get(index + MAX_PAYLOAD_BYTES);
+        while (payloadBytes > maxPayloadBytes
+                && !counters.compareAndSet(index + MAX_PAYLOAD_BYTES, maxPayloadBytes,
+                payloadBytes)) {
+            maxPayloadBytes = counters.get(index + MAX_PAYLOAD_BYTES);
+        }
+    }
+
+    void writeSnapshot(BridgeJsonWriter writer) {
+        writer.field("Enabled", enabled);
+        writer.name("Operations").beginArray();
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            int index = operation * COUNTERS;
+            writer.beginObject()
+                    .field("Name", OPERATION_NAMES[operation])
+                    .field("Calls", counters.get(index + CALLS))
+                    .field("Failures", counters.get(index + FAILURES))
+                    .field("Payloads", counters.get(index + PAYLOADS))
+                    .field("PayloadBytes", counters.get(index + PAYLOAD_BYTES))
+                    .field("MaxPayloadBytes", counters.get(index + MAX_PAYLOAD_BYTES));
+            writer.name("Latencies").beginArray();
+            long[] histogram = new long[BUCKETS];
+            for (int slot = 0; slot < RESPONSE_CODES; slot++) {
+                int offset = (operation * RESPONSE_CODES + slot) * BUCKETS;
+                long count = 0;
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    histogram[bucket] = latencyBuckets.get(offset + bucket);
+                    count += histogram[bucket];
+                }
+                if (count == 0) {
+                    continue;
+                }
+                writer.beginObject()
+                        .field("ResponseCode", slot == OTHER_RESPONSE_CODE_SLOT
+                                ? Integer.MIN_VALUE : slot + MIN_RESPONSE_CODE)
+                        .field("Count", count)
+                        .field("P50Micros", getPercentile(histogram, count, 0.50))
+                        .field("P90Micros", getPercentile(histogram, count, 0.90))
+                        .field("P99Micros", getPercentile(histogram, count, 0.99))
+                        .field("MaxMicros", getPercentile(histogram, count, 1.0))
+                        .endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private static int getResponseCodeSlot(int responseCode) {
+        if (responseCode < MIN_RESPONSE_CODE || responseCode > MAX_RESPONSE_CODE) {
+            return OTHER_RESPONSE_CODE_SLOT;
+        }
+        return responseCode - MIN_RESPONSE_CODE;
+    }
+
+    private static long getPercentile(long[] histogram, long count, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(count * percentile));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= rank) {
+                return 1L << bucket;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
@@ -0,0 +1,85 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records every callback sent to Unity to a trace file, so that the traffic of a real session can
+ * be replayed through the bridge off the device.
+ *
+ * <p>Each callback is a line with the microseconds elapsed since the trace started, the callback
+ * method and its payload, separated by tabs. JSON payloads escape tabs and newlines, so they never
+ * break a line. Lines are buffered and written on the thread sending the callback, which is only
+ * acceptable while debugging: the recorder does nothing, not even locking, when it is stopped.
+ */
+class CallbackTraceRecorder {
+    private static final String TAG = "CallbackTraceRecorder";
+
+    private volatile boolean recording = false;
+    private Writer writer;
+    private File file;
+    private long startNanos;
+    private long recordedCallbacks;
+
+    boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Starts recording to {@code file}, replacing it, and stops any trace being recorded.
+     */
+    synchronized boolean start(File file) {
+        stop();
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false),
+                    StandardCharsets.UTF_8));
+        } catch (IOException exception) {
+            BridgeLog.e(TAG, "Failed to create callback trace: ", exception);
+            return false;
+        }
+        this.file = file;
+        startNanos = System.nanoTime();
+        recordedCallbacks = 0;
+        recording = true;
+        return true;
+    }
+
+    synchronized void record(String methodName, String payload) {
+        if (!recording) {
+            return;
+        }
+        try {
+            writer.write(Long.toString((System.nanoTime() - startNanos) / 1000));
+            writer.write('\t');
+            writer.write(methodName);
+            writer.write('\t');
+            writer.write(payload);
+            writer.write('\n');
+            recordedCallbacks++;
+        } catch (IOException exception) {
+            BridgeLog.e(TAG, "Failed to record callback, trace stopped: ", exception);
+            stop();
+        }
+    }
+
+    /**
+     * Stops recording and returns the trace file, or null if no trace was being recorded.
+     */
+    synchronized File stop() {
+        if (writer == null) {
+            return null;
+        }
+        recording = false;
+        try {
+            writer.close();
+        } catch (IOException exception) {
+            BridgeLog.e(TAG, "Failed to close callback trace: ", exception);
+        }
+        writer = null;
+        BridgeLog.d(TAG, "Callbacks recorded: ", recordedCallbacks);
+        return file;
+    }
+}
@@ -0,0 +1,337 @@
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.listeners.ConsumeResponseListener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Consumes purchase tokens in batches, with at most {@code maxConcurrentConsumes} consumes in
+ * flight at once.
+ *
+ * <p>A token submitted while it is already queued or being consumed is not consumed again: the new
+ * batch waits for the result of the consume in progress. Every consume is reported once through
+ * {@link ResultListener#onConsumeResult}, and each batch, if it has a {@link BatchListener}, once
+ * all of its tokens have a result.
+ *
+ * <p>Accepted tokens are recorded in an append-only journal ({@code +token} lines) and crossed out
+ * once they have a final result ({@code -token} lines): OK, ITEM_NOT_OWNED or DEVELOPER_ERROR.
+ * Consumes interrupted by a process kill, or that failed with any other code and may succeed
+ * later, stay in the journal and are submitted again with {@link #resume()}. The journal is
+ * truncated whenever nothing is pending and rewritten when it grows too large. Every journal read
+ * and write runs in order on {@code journalExecutor}, so that submitting never touches the disk.
+ */
+class ConsumePipeline {
+    private static final String TAG = "ConsumePipeline";
+    private static final int MIN_JOURNAL_LINES_TO_COMPACT = 64;
+    private static final int RESPONSE_CODE_OK = 0;
+    private static final int RESPONSE_CODE_DEVELOPER_ERROR = 5;
+    private static final int RESPONSE_CODE_ITEM_NOT_OWNED = 8;
+
+    interface ConsumeExecutor {
+        void consume(String purchaseToken, ConsumeResponseListener listener);
+    }
+
+    interface ResultListener {
+        void onConsumeResult(BillingResult billingResult, String purchaseToken);
+    }
+
+    interface BatchListener {
+        void onBatchFinished(int batchId, List<String> purchaseTokens,
+                List<BillingResult> billingResults);
+    }
+
+    private final File journalFile;
+    private final Executor journalExecutor;
+    private final ConsumeExecutor consumeExecutor;
+    private final ResultListener resultListener;
+    private final int maxConcurrentConsumes;
+
+    private final ArrayDeque<String> queuedTokens = new ArrayDeque<>();
+    private final Map<String, List<Batch>> pendingTokens = new HashMap<>();
+    private int runningConsumes = 0;
+    private int nextBatchId = 1;
+    private int journalLines = 0;
+    private boolean journalRead = false;
+    private final Set<String> interruptedTokens = new LinkedHashSet<>();
+
+    /**
+     * Creates the pipeline and starts reading the journal left by a previous process on
+     * {@code journalExecutor}, which must run its tasks one at a time and in order.
+     */
+    ConsumePipeline(File journalFile, Executor journalExecutor, ConsumeExecutor consumeExecutor,
+            ResultListener resultListener, int maxConcurrentConsumes) {
+        this.journalFile = journalFile;
+        this.journalExecutor = journalExecutor;
+        this.consumeExecutor = consumeExecutor;
+        this.resultListener = resultListener;
+        this.maxConcurrentConsumes = maxConcurrentConsumes;
+        journalExecutor.execute(this::readJournalOnce);
+    }
+
+    /**
+     * Queues the tokens to be consumed and returns the id of their batch. Tokens repeated in the
+     * list, or already pending, are only consumed once.
+     */
+    int submit(List<String> purchaseTokens, BatchListener batchListener) {
+        List<String> tokensToStart;
+        Batch batch;
+        synchronized (this) {
+            batch = new Batch(nextBatchId++,
+                    new ArrayList<>(new LinkedHashSet<>(purchaseTokens)), batchListener);
+            List<String> acceptedTokens = new ArrayList<>();
+            for (String purchaseToken : batch.purchaseTokens) {
+                List<Batch> waitingBatches = pendingTokens.get(purchaseToken);
+                if (waitingBatches == null) {
+                    waitingBatches = new ArrayList<>();
+                    pendingTokens.put(purchaseToken, waitingBatches);
+                    queuedTokens.add(purchaseToken);
+                    acceptedTokens.add(purchaseToken);
+                } else {
+                    BridgeLog.d(TAG, "Purchase token already being consumed: ", purchaseToken);
+                }
+                waitingBatches.add(batch);
+            }
+            appendToJournal('+', acceptedTokens);
+            tokensToStart = pollTokensToStart();
+        }
+        if (batch.remainingTokens == 0 && batchListener != null) {
+            batchListener.onBatchFinished(batch.batchId, batch.purchaseTokens,
+                    batch.billingResults);
+        }
+        start(tokensToStart);
+        return batch.batchId;
+    }
+
+    /**
+     * Submits again, once the journal is read, the tokens left pending in it by a previous
+     * process or by a failed consume. They stay in the journal until consumed, so it is safe to
+     * call on every successful setup.
+     */
+    void resume() {
+        journalExecutor.execute(() -> {
+            List<String> resumedTokens;
+            synchronized (this) {
+                resumedTokens = new ArrayList<>(interruptedTokens);
+                interruptedTokens.clear();
+            }
+            if (!resumedTokens.isEmpty()) {
+                BridgeLog.d(TAG, "Interrupted consumes resumed: ", resumedTokens.size());
+                submit(resumedTokens, null);
+            }
+        });
+    }
+
+    private void readJournalOnce() {
+        List<String> journalTokens = readJournal();
+        synchronized (this) {
+            journalRead = true;
+            interruptedTokens.addAll(journalTokens);
+            rewriteJournal();
+        }
+    }
+
+    private List<String> pollTokensToStart() {
+        List<String> tokensToStart = new ArrayList<>();
+        while (runningConsumes < maxConcurrentConsumes && !queuedTokens.isEmpty()) {
+            tokensToStart.add(queuedTokens.poll());
+            runningConsumes++;
+        }
+        return tokensToStart;
+    }
+
+    private void start(List<String> purchaseTokens) {
+        for (String purchaseToken : purchaseTokens) {
+            consumeExecutor.consume(purchaseToken, this::onConsumeResponse);
+        }
+    }
+
+    private void onConsumeResponse(BillingResult billingResult, String purchaseToken) {
+        List<Batch> finishedBatches = new ArrayList<>();
+        List<String> tokensToStart;
+        synchronized (this) {
+            runningConsumes--;
+            List<Batch> waitingBatches = pendingTokens.remove(purchaseToken);
+            if (waitingBatches != null) {
+                for (Batch batch : waitingBatches) {
+                    batch.billingResults.set(batch.tokenIndexes.get(purchaseToken),
+                            billingResult);
+                    if (--batch.remainingTokens == 0) {
+                        finishedBatches.add(batch);
+                    }
+                }
+            }
+            if (!isFinal(billingResult)) {
+                // Kept in the journal, to be tried again on the next resume()
+                interruptedTokens.add(purchaseToken);
+            } else if (journalRead && pendingTokens.isEmpty() && interruptedTokens.isEmpty()) {
+                // Until the journal is read, it may hold interrupted tokens that must not be lost
+                truncateJournal();
+            } else {
+                appendToJournal('-', Collections.singletonList(purchaseToken));
+                if (journalLines > Math.max(MIN_JOURNAL_LINES_TO_COMPACT,
+                        (pendingTokens.size() + interruptedTokens.size()) * 4)) {
+                    rewriteJournal();
+                }
+            }
+            tokensToStart = pollTokensToStart();
+        }
+        resultListener.onConsumeResult(billingResult, purchaseToken);
+        for (Batch batch : finishedBatches) {
+            if (batch.batchListener != null) {
+                batch.batchListener.onBatchFinished(batch.batchId, batch.purchaseTokens,
+                        batch.billingResults);
+            }
+        }
+        start(tokensToStart);
+    }
+
+    private static boolean isFinal(BillingResult billingResult) {
+        int responseCode = billingResult.getResponseCode();
+        return responseCode == RESPONSE_CODE_OK
+                || responseCode == RESPONSE_CODE_ITEM_NOT_OWNED
+                || responseCode == RESPONSE_CODE_DEVELOPER_ERROR;
+    }
+
+    private void appendToJournal(char operation, List<String> purchaseTokens) {
+        if (purchaseTokens.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String purchaseToken : purchaseTokens) {
+            lines.append(operation).append(purchaseToken).append('\n');
+        }
+        journalLines += purchaseTokens.size();
+        byte[] content = lines.toString().getBytes(StandardCharsets.UTF_8);
+        journalExecutor.execute(() -> {
+            // Written straight to the file without buffering: a process kill does not lose data
+            // already handed to the OS
+            try (OutputStream outputStream = new FileOutputStream(journalFile, true)) {
+                outputStream.write(content);
+            } catch (IOException exception) {
+                BridgeLog.e(TAG, "Failed to append to consume journal: ", exception);
+            }
+        });
+    }
+
+    private void truncateJournal() {
+        if (journalLines == 0) {
+            return;
+        }
+        journalLines = 0;
+        journalExecutor.execute(() -> {
+            try {
+                new FileOutputStream(journalFile, false).close();
+            } catch (IOException exception) {
+                BridgeLog.e(TAG, "Failed to truncate consume journal: ", exception);
+            }
+        });
+    }
+
+    private void rewriteJournal() {
+        Set<String> purchaseTokens = new LinkedHashSet<>(interruptedTokens);
+        purchaseTokens.addAll(pendingTokens.keySet());
+        StringBuilder lines = new StringBuilder();
+        for (String purchaseToken : purchaseTokens) {
+            lines.append('+').append(purchaseToken).append('\n');
+        }
+        journalLines = purchaseTokens.size();
+        byte[] content = lines.toString().getBytes(StandardCharsets.UTF_8);
+        journalExecutor.execute(() -> writeJournal(content));
+    }
+
+    private void writeJournal(byte[] content) {
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        try {
+            try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                outputStream.write(content);
+            }
+            if (!tempFile.renameTo(journalFile)) {
+                BridgeLog.e(TAG, "Failed to replace consume journal file.");
+                tempFile.delete();
+            }
+        } catch (IOException exception) {
+            BridgeLog.e(TAG, "Failed to rewrite consume journal: ", exception);
+            tempFile.delete();
+        }
+    }
+
+    private List<String> readJournal() {
+        Set<String> purchaseTokens = new LinkedHashSet<>();
+        if (!journalFile.exists()) {
+            return new ArrayList<>();
+        }
+        String content;
+        try {
+            content = readJournalContent();
+        } catch (IOException exception) {
+            BridgeLog.e(TAG, "Failed to read consume journal: ", exception);
+            return new ArrayList<>();
+        }
+        // A line without its trailing newline was cut short by a process kill and is ignored
+        int lineStart = 0;
+        int lineEnd;
+        while ((lineEnd = content.indexOf('\n', lineStart)) >= 0) {
+            if (lineEnd - lineStart >= 2) {
+                String purchaseToken = content.substring(lineStart + 1, lineEnd);
+                if (content.charAt(lineStart) == '+') {
+                    purchaseTokens.add(purchaseToken);
+                } else if (content.charAt(lineStart) == '-') {
+                    purchaseTokens.remove(purchaseToken);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new ArrayList<>(purchaseTokens);
+    }
+
+    private String readJournalContent() throws IOException {
+        byte[] content = new byte[(int) journalFile.length()];
+        int offset = 0;
+        try (InputStream inputStream = new FileInputStream(journalFile)) {
+            while (offset < content.length) {
+                int read = inputStream.read(content, offset, content.length - offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+        }
+        return new String(content, 0, offset, StandardCharsets.UTF_8);
+    }
+
+    private static class Batch {
+        final int batchId;
+        final List<String> purchaseTokens;
+        final Map<String, Integer> tokenIndexes;
+        final List<BillingResult> billingResults;
+        final BatchListener batchListener;
+        int remainingTokens;
+
+        Batch(int batchId, List<String> purchaseTokens, BatchListener batchListener) {
+            this.batchId = batchId;
+            this.purchaseTokens = purchaseTokens;
+            this.tokenIndexes = new HashMap<>(purchaseTokens.size() * 2);
+            this.billingResults = new ArrayList<>(purchaseTokens.size());
+            for (int i = 0; i < purchaseTokens.size(); i++) {
+                tokenIndexes.put(purchaseTokens.get(i), i);
+                billingResults.add(null);
+            }
+            this.batchListener = batchListener;
+            this.remainingTokens = purchaseTokens.size();
+        }
+    }
+}
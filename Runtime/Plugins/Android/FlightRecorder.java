@@ -0,0 +1,61 @@
+/**
+ * Fixed-size ring buffer of the last billing events, kept in memory so that the app can dump what
+ * happened around a failed purchase reported by a player, even with logging disabled.
+ *
+ * <p>Events are stored in preallocated parallel arrays of primitives and interned event names,
+ * so recording never allocates; once full, the oldest event is overwritten.
+ */
+class FlightRecorder {
+    private final String[] events;
+    private final long[] timestamps;
+    private final long[] durationsMicros;
+    private final int[] responseCodes;
+    private final int[] sizes;
+    private long recorded = 0;
+
+    FlightRecorder(int capacity) {
+        events = new String[capacity];
+        timestamps = new long[capacity];
+        durationsMicros = new long[capacity];
+        responseCodes = new int[capacity];
+        sizes = new int[capacity];
+    }
+
+    /**
+     * Records an event that finished now. {@code startNanos} is the {@link System#nanoTime()} it
+     * started at, or 0 if it has no duration, and {@code size} the number of products, purchases
+     * or tokens involved.
+     */
+    synchronized void record(String event, int responseCode, long startNanos, int size) {
+        int index = (int) (recorded % events.length);
+        events[index] = event;
+        timestamps[index] = System.currentTimeMillis();
+        durationsMicros[index] = startNanos == 0 ? -1 : (System.nanoTime() - startNanos) / 1000;
+        responseCodes[index] = responseCode;
+        sizes[index] = size;
+        recorded++;
+    }
+
+    /**
+     * Writes the recorded events, oldest first, and the number of events recorded so far.
+     */
+    synchronized void writeDump(BridgeJsonWriter writer) {
+        writer.beginObject();
+        writer.field("Capacity", events.length);
+        writer.field("Recorded", recorded);
+        writer.name("Events").beginArray();
+        long first = Math.max(0, recorded - events.length);
+        for (long i = first; i < recorded; i++) {
+            int index = (int) (i % events.length);
+            writer.beginObject()
+                    .field("Event", events[index])
+                    .field("Timestamp", timestamps[index])
+                    .field("DurationMicros", durationsMicros[index])
+                    .field("ResponseCode", responseCodes[index])
+                    .field("Size", sizes[index])
+                    .endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+}
@@ -0,0 +1,190 @@
+import androidx.annotation.NonNull;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent copy of the last fetched product catalog, kept in app-private storage so that a cold
+ * start can show prices before the first queryProductDetailsAsync round trip completes.
+ *
+ * <p>Entries are stored as the same JSON fragments sent to Unity in ProductDetailsResponseCallback,
+ * each one with its own expiry time, and are spliced as is when the catalog is written. The whole
+ * file is discarded when its catalog key (cache format version and locale) no longer matches the
+ * running app. Fresh entries are only kept in memory until {@link #flush()}, so that a burst of
+ * responses is written to the file once.
+ *
+ * <p>Not thread-safe: all calls are expected to run on the bridge background executor.
+ */
+class ProductDetailsCatalogCache {
+    private static final String TAG = "ProductDetailsCatalogCache";
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final String catalogKey;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private boolean loaded = false;
+    private boolean dirty = false;
+
+    ProductDetailsCatalogCache(File file, String locale, long ttlMillis) {
+        this.file = file;
+        this.catalogKey = FORMAT_VERSION + ":" + locale;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Reads the cache file once, dropping expired entries and files written for another catalog
+     * key. Subsequent calls only prune entries that expired since the last call.
+     */
+    List<Entry> load() {
+        long now = System.currentTimeMillis();
+        if (!loaded) {
+            loaded = true;
+            readFile(now);
+        }
+        List<Entry> validEntries = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.expiresAt > now) {
+                validEntries.add(entry);
+            }
+        }
+        return validEntries;
+    }
+
+    /**
+     * Replaces the cached entry of every product in the list. Returns true if the catalog had no
+     * changes waiting to be written, in which case a {@link #flush()} must be scheduled.
+     */
+    boolean put(List<Entry> freshEntries) {
+        if (!loaded) {
+            load();
+        }
+        for (Entry entry : freshEntries) {
+            entries.put(entry.productId, entry);
+        }
+        boolean wasDirty = dirty;
+        dirty = true;
+        return !wasDirty;
+    }
+
+    /**
+     * Persists the catalog if it changed since it was last written.
+     */
+    void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        writeFile();
+    }
+
+    Entry newEntry(String productId, String productType, String productDetailsJson) {
+        return new Entry(productId, productType, System.currentTimeMillis() + ttlMillis,
+                productDetailsJson);
+    }
+
+    private void readFile(long now) {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            JSONObject catalogJson = new JSONObject(readFileContent());
+            if (!catalogKey.equals(catalogJson.optString("CatalogKey"))) {
+                BridgeLog.d(TAG, "Discarding product catalog cache with outdated key.");
+                return;
+            }
+            JSONArray entriesJsonArray = catalogJson.getJSONArray("Entries");
+            for (int i = 0; i < entriesJsonArray.length(); i++) {
+                JSONObject entryJson = entriesJsonArray.getJSONObject(i);
+                long expiresAt = entryJson.getLong("ExpiresAt");
+                if (expiresAt <= now) {
+                    continue;
+                }
+                Entry entry = new Entry(entryJson.getString("ProductId"),
+                        entryJson.getString("ProductType"), expiresAt,
+                        entryJson.getJSONObject("ProductDetails").toString());
+                entries.put(entry.productId, entry);
+            }
+        } catch (IOException | JSONException exception) {
+            BridgeLog.e(TAG, "Failed to read product catalog cache: ", exception);
+            entries.clear();
+        }
+    }
+
+    private void writeFile() {
+        long now = System.currentTimeMillis();
+        File tempFile = new File(file.getPath() + ".tmp");
+        BridgeJsonWriter writer = BridgeJsonWriter.obtain();
+        writer.beginObject();
+        writer.field("CatalogKey", catalogKey);
+        writer.name("Entries").beginArray();
+        for (Entry entry : entries.values()) {
+            if (entry.expiresAt <= now) {
+                continue;
+            }
+            writer.beginObject()
+                    .field("ProductId", entry.productId)
+                    .field("ProductType", entry.productType)
+                    .field("ExpiresAt", entry.expiresAt);
+            writer.name("ProductDetails").rawValue(entry.productDetailsJson);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        try {
+            try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                outputStream.write(writer.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (!tempFile.renameTo(file)) {
+                BridgeLog.e(TAG, "Failed to replace product catalog cache file.");
+                tempFile.delete();
+            }
+        } catch (IOException exception) {
+            BridgeLog.e(TAG, "Failed to write product catalog cache: ", exception);
+            tempFile.delete();
+        }
+    }
+
+    @NonNull
+    private String readFileContent() throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < content.length) {
+                int read = inputStream.read(content, offset, content.length - offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+        }
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    static class Entry {
+        final String productId;
+        final String productType;
+        final long expiresAt;
+        final String productDetailsJson;
+
+        Entry(String productId, String productType, long expiresAt,
+                String productDetailsJson) {
+            this.productId = productId;
+            this.productType = productType;
+            this.expiresAt = expiresAt;
+            this.productDetailsJson = productDetailsJson;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import com.aptoide.sdk.billing.ProductDetails;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of the serialized JSON of each product, keyed by product id and validated with a
+ * fingerprint of every serialized field.
+ *
+ * <p>A catalog refresh where nothing changed only pays for the fingerprint of each product, and
+ * the pre-rendered fragments are spliced as is in the ProductDetailsResponseCallback payload.
+ */
+class ProductDetailsFragmentCache {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x9e3779b97f4a7c15L;
+
+    interface FragmentRenderer {
+        void render(BridgeJsonWriter writer, ProductDetails productDetails);
+    }
+
+    private final FragmentRenderer renderer;
+    private final BridgeJsonWriter fragmentWriter = new BridgeJsonWriter();
+    private final Map<String, Fragment> fragments;
+
+    ProductDetailsFragmentCache(FragmentRenderer renderer, final int maxEntries) {
+        this.renderer = renderer;
+        this.fragments = new LinkedHashMap<String, Fragment>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fragment> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the serialized JSON object of the product, rendering it only when the product is
+     * not cached or any of its fields changed since it was rendered.
+     */
+    synchronized String getFragment(ProductDetails productDetails) {
+        long fingerprint = fingerprint(productDetails);
+        Fragment fragment = fragments.get(productDetails.getProductId());
+        if (fragment != null && fragment.fingerprint == fingerprint) {
+            return fragment.json;
+        }
+        fragmentWriter.reset();
+        renderer.render(fragmentWriter, productDetails);
+        String json = fragmentWriter.toString();
+        fragments.put(productDetails.getProductId(), new Fragment(fingerprint, json));
+        return json;
+    }
+
+    private static long fingerprint(ProductDetails productDetails) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, productDetails.getProductId());
+        hash = mix(hash, productDetails.getProductType());
+        hash = mix(hash, productDetails.getTitle());
+        hash = mix(hash, productDetails.getDescription());
+
+        ProductDetails.OneTimePurchaseOfferDetails offer =
+                productDetails.getOneTimePurchaseOfferDetails();
+        if (offer == null) {
+            hash = mix(hash, NULL_MARKER);
+        } else {
+            hash = mix(hash, offer.getFormattedPrice());
+            hash = mix(hash, offer.getPriceAmountMicros());
+            hash = mix(hash, offer.getPriceCurrencyCode());
+            hash = mix(hash, offer.getAppcFormattedPrice());
+            hash = mix(hash, offer.getAppcPriceAmountMicros());
+            hash = mix(hash, offer.getAppcPriceCurrencyCode());
+            hash = mix(hash, offer.getFiatFormattedPrice());
+            hash = mix(hash, offer.getFiatPriceAmountMicros());
+            hash = mix(hash, offer.getFiatPriceCurrencyCode());
+        }
+
+        List<ProductDetails.SubscriptionOfferDetails> offerDetails =
+                productDetails.getSubscriptionOfferDetails();
+        if (offerDetails == null) {
+            return mix(hash, NULL_MARKER);
+        }
+        hash = mix(hash, offerDetails.size());
+        for (int i = 0; i < offerDetails.size(); i++) {
+            ProductDetails.SubscriptionOfferDetails offerDetail = offerDetails.get(i);
+            List<ProductDetails.PricingPhase> pricingPhases =
+                    offerDetail.getPricingPhases().getPricingPhaseList();
+            hash = mix(hash, pricingPhases.size());
+            for (int j = 0; j < pricingPhases.size(); j++) {
+                ProductDetails.PricingPhase pricingPhase = pricingPhases.get(j);
+                hash = mix(hash, pricingPhase.getBillingPeriod());
+                hash = mix(hash, pricingPhase.getFormattedPrice());
+                hash = mix(hash, pricingPhase.getPriceAmountMicros());
+                hash = mix(hash, pricingPhase.getPriceCurrencyCode());
+                hash = mix(hash, pricingPhase.getAppcFormattedPrice());
+                hash = mix(hash, pricingPhase.getAppcPriceAmountMicros());
+                hash = mix(hash, pricingPhase.getAppcPriceCurrencyCode());
+                hash = mix(hash, pricingPhase.getFiatFormattedPrice());
+                hash = mix(hash, pricingPhase.getFiatPriceAmountMicros());
+                hash = mix(hash, pricingPhase.getFiatPriceCurrencyCode());
+            }
+            ProductDetails.TrialDetails trialDetails = offerDetail.getTrialDetails();
+            if (trialDetails == null) {
+                hash = mix(hash, NULL_MARKER);
+            } else {
+                hash = mix(hash, trialDetails.getPeriod());
+                hash = mix(hash, trialDetails.getPeriodEndDate());
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, NULL_MARKER);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Terminate every string so that adjacent fields cannot shift into each other
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash = (hash ^ (value & 0xFF)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    private static class Fragment {
+        final long fingerprint;
+        final String json;
+
+        Fragment(long fingerprint, String json) {
+            this.fingerprint = fingerprint;
+            this.json = json;
+        }
+    }
+}
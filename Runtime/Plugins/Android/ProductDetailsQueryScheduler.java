@@ -0,0 +1,179 @@
+import com.aptoide.sdk.billing.BillingResult;
+import com.aptoide.sdk.billing.ProductDetails;
+import com.aptoide.sdk.billing.UnfetchedProduct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schedules product details queries so that concurrent requests share backend calls.
+ *
+ * <p>Products that already have a query in flight are attached to it instead of being queried
+ * again, and the remaining products are split in chunks of at most {@code maxChunkSize} that run
+ * in parallel. Products of different types go to separate chunks, since a backend call queries a
+ * single type. Once every chunk a request depends on has answered, the request receives only its
+ * own products and unfetched products, tagged with the request id returned by
+ * {@link #schedule(String, List)} and the time it was scheduled at.
+ */
+class ProductDetailsQueryScheduler {
+    private static final int RESPONSE_CODE_OK = 0;
+
+    interface QueryExecutor {
+        void query(String productType, List<String> productIds, ChunkListener listener);
+    }
+
+    interface ChunkListener {
+        void onChunkResult(BillingResult billingResult, List<ProductDetails> productDetailsList,
+                List<UnfetchedProduct> unfetchedProductList);
+    }
+
+    interface ResultListener {
+        void onResult(int requestId, long scheduledAtNanos, BillingResult billingResult,
+                List<ProductDetails> productDetailsList,
+                List<UnfetchedProduct> unfetchedProductList);
+    }
+
+    private final QueryExecutor queryExecutor;
+    private final ResultListener resultListener;
+    private final int maxChunkSize;
+    private final Map<String, Chunk> inFlightChunks = new HashMap<>();
+    private int nextRequestId = 1;
+
+    ProductDetailsQueryScheduler(QueryExecutor queryExecutor, ResultListener resultListener,
+            int maxChunkSize) {
+        this.queryExecutor = queryExecutor;
+        this.resultListener = resultListener;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Schedules a query for the given products and returns the id that will tag its result.
+     */
+    int schedule(String productType, List<String> productIds) {
+        return schedule(productIds, Collections.nCopies(productIds.size(), productType));
+    }
+
+    /**
+     * Schedules a query for products of mixed types, where {@code productTypes} holds the type of
+     * the product at the same index in {@code productIds}. The products are chunked per type, the
+     * chunks of every type run in parallel and the request receives a single merged result.
+     */
+    int schedule(List<String> productIds, List<String> productTypes) {
+        Request request;
+        List<Chunk> newChunks = new ArrayList<>();
+        synchronized (this) {
+            request = new Request(nextRequestId++);
+            Set<Chunk> joinedChunks = new LinkedHashSet<>();
+            Map<String, Chunk> currentChunks = new HashMap<>();
+            for (int i = 0; i < productIds.size(); i++) {
+                String productId = productIds.get(i);
+                String productType = productTypes.get(i);
+                String key = getProductKey(productType, productId);
+                if (!request.productKeys.add(key)) {
+                    continue;
+                }
+                Chunk inFlightChunk = inFlightChunks.get(key);
+                if (inFlightChunk != null) {
+                    joinedChunks.add(inFlightChunk);
+                    continue;
+                }
+                Chunk currentChunk = currentChunks.get(productType);
+                if (currentChunk == null || currentChunk.productIds.size() >= maxChunkSize) {
+                    currentChunk = new Chunk(productType);
+                    currentChunks.put(productType, currentChunk);
+                    newChunks.add(currentChunk);
+                    joinedChunks.add(currentChunk);
+                }
+                currentChunk.productIds.add(productId);
+                inFlightChunks.put(key, currentChunk);
+            }
+            if (joinedChunks.isEmpty()) {
+                Chunk emptyChunk = new Chunk(productTypes.isEmpty() ? null : productTypes.get(0));
+                newChunks.add(emptyChunk);
+                joinedChunks.add(emptyChunk);
+            }
+            for (Chunk chunk : joinedChunks) {
+                chunk.requests.add(request);
+            }
+            request.pendingChunks = joinedChunks.size();
+        }
+
+        for (Chunk chunk : newChunks) {
+            queryExecutor.query(chunk.productType, chunk.productIds,
+                    (billingResult, productDetailsList, unfetchedProductList) -> onChunkResult(
+                            chunk, billingResult, productDetailsList, unfetchedProductList));
+        }
+        return request.id;
+    }
+
+    private void onChunkResult(Chunk chunk, BillingResult billingResult,
+            List<ProductDetails> productDetailsList,
+            List<UnfetchedProduct> unfetchedProductList) {
+        List<Request> completedRequests = new ArrayList<>();
+        synchronized (this) {
+            for (String productId : chunk.productIds) {
+                inFlightChunks.remove(getProductKey(chunk.productType, productId));
+            }
+            for (Request request : chunk.requests) {
+                for (ProductDetails productDetails : productDetailsList) {
+                    if (request.productKeys.contains(
+                            getProductKey(chunk.productType, productDetails.getProductId()))) {
+                        request.productDetailsList.add(productDetails);
+                    }
+                }
+                for (UnfetchedProduct unfetchedProduct : unfetchedProductList) {
+                    if (request.productKeys.contains(
+                            getProductKey(chunk.productType, unfetchedProduct.getProductId()))) {
+                        request.unfetchedProductList.add(unfetchedProduct);
+                    }
+                }
+                if (request.billingResult == null
+                        || request.billingResult.getResponseCode() == RESPONSE_CODE_OK) {
+                    request.billingResult = billingResult;
+                }
+                request.pendingChunks--;
+                if (request.pendingChunks == 0) {
+                    completedRequests.add(request);
+                }
+            }
+        }
+
+        for (Request request : completedRequests) {
+            resultListener.onResult(request.id, request.scheduledAtNanos, request.billingResult,
+                    request.productDetailsList, request.unfetchedProductList);
+        }
+    }
+
+    private static String getProductKey(String productType, String productId) {
+        return productType + '\u0000' + productId;
+    }
+
+    private static class Chunk {
+        final String productType;
+        final List<String> productIds = new ArrayList<>();
+        final List<Request> requests = new ArrayList<>();
+
+        Chunk(String productType) {
+            this.productType = productType;
+        }
+    }
+
+    private static class Request {
+        final int id;
+        final long scheduledAtNanos = System.nanoTime();
+        final Set<String> productKeys = new LinkedHashSet<>();
+        final List<ProductDetails> productDetailsList = new ArrayList<>();
+        final List<UnfetchedProduct> unfetchedProductList = new ArrayList<>();
+        BillingResult billingResult;
+        int pendingChunks;
+
+        Request(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import com.aptoide.sdk.billing.ProductDetails;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write store of the fetched product details.
+ *
+ * <p>Readers get an immutable snapshot with a single volatile read, so they never block and never
+ * see a partially applied refresh. Writers copy the current snapshot, apply a whole refresh and
+ * publish it with a compare-and-set, bumping the generation so callers can tell their view of the
+ * catalog is outdated.
+ */
+class ProductDetailsStore {
+    private final AtomicReference<Snapshot> snapshot =
+            new AtomicReference<>(new Snapshot(Collections.emptyMap(), 0));
+
+    ProductDetails get(String productId) {
+        return snapshot.get().productDetailsMap.get(productId);
+    }
+
+    long getGeneration() {
+        return snapshot.get().generation;
+    }
+
+    /**
+     * Atomically adds or replaces every product in the list and returns the new generation.
+     */
+    long publish(List<ProductDetails> productDetailsList) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Map<String, ProductDetails> productDetailsMap =
+                    new HashMap<>(current.productDetailsMap);
+            for (ProductDetails productDetails : productDetailsList) {
+                productDetailsMap.put(productDetails.getProductId(), productDetails);
+            }
+            Snapshot updated = new Snapshot(Collections.unmodifiableMap(productDetailsMap),
+                    current.generation + 1);
+            if (snapshot.compareAndSet(current, updated)) {
+                return updated.generation;
+            }
+        }
+    }
+
+    private static class Snapshot {
+        final Map<String, ProductDetails> productDetailsMap;
+        final long generation;
+
+        Snapshot(Map<String, ProductDetails> productDetailsMap, long generation) {
+            this.productDetailsMap = productDetailsMap;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import com.aptoide.sdk.billing.Purchase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers, per product type, the purchases last sent to Unity so that only what changed since
+ * then needs to be sent again.
+ *
+ * <p>A purchase is identified by its token and is considered changed when its purchase state or
+ * auto-renewing flag differ. Each delta gets the next sequence number of its product type; a
+ * product type that was never synced, or was reset, gets a full resync with every purchase added.
+ */
+class PurchaseSyncTracker {
+    private final Map<String, SyncState> syncStates = new HashMap<>();
+
+    /**
+     * Compares the purchases with the ones last sent for the product type and records them as
+     * the new state.
+     */
+    synchronized Delta sync(String productType, List<Purchase> purchases) {
+        SyncState previousState = syncStates.get(productType);
+        SyncState newState = new SyncState(previousState == null ? 1 : previousState.sequence + 1);
+        Delta delta = new Delta(newState.sequence, previousState == null);
+
+        for (Purchase purchase : purchases) {
+            int purchaseState = getSyncedState(purchase);
+            newState.purchaseStates.put(purchase.getPurchaseToken(), purchaseState);
+            Integer previousPurchaseState = previousState == null ? null
+                    : previousState.purchaseStates.get(purchase.getPurchaseToken());
+            if (previousPurchaseState == null) {
+                delta.added.add(purchase);
+            } else if (previousPurchaseState != purchaseState) {
+                delta.changed.add(purchase);
+            }
+        }
+        if (previousState != null) {
+            for (String purchaseToken : previousState.purchaseStates.keySet()) {
+                if (!newState.purchaseStates.containsKey(purchaseToken)) {
+                    delta.removed.add(purchaseToken);
+                }
+            }
+        }
+        syncStates.put(productType, newState);
+        return delta;
+    }
+
+    /**
+     * Returns the sequence number of the last delta of the product type, or 0 if never synced.
+     */
+    synchronized long getSequence(String productType) {
+        SyncState syncState = syncStates.get(productType);
+        return syncState == null ? 0 : syncState.sequence;
+    }
+
+    /**
+     * Forgets the purchases sent for the product type, so that its next delta is a full resync.
+     */
+    synchronized void reset(String productType) {
+        syncStates.remove(productType);
+    }
+
+    private static int getSyncedState(Purchase purchase) {
+        return purchase.getPurchaseState() * 2 + (purchase.isAutoRenewing() ? 1 : 0);
+    }
+
+    static class Delta {
+        final long sequence;
+        final boolean fullResync;
+        final List<Purchase> added = new ArrayList<>();
+        final List<Purchase> changed = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+
+        Delta(long sequence, boolean fullResync) {
+            this.sequence = sequence;
+            this.fullResync = fullResync;
+        }
+    }
+
+    private static class SyncState {
+        final long sequence;
+        final Map<String, Integer> purchaseStates = new HashMap<>();
+
+        SyncState(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
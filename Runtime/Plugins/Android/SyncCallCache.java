@@ -0,0 +1,104 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches the result of a synchronous billing client call so that the Unity main thread does not
+ * wait on the SDK every time it asks.
+ *
+ * <p>Only the first call, or every call when the TTL is 0, loads the value on the calling thread.
+ * Afterwards the cached value is returned right away, and once it is older than the TTL or
+ * invalidated it is still returned, flagged as stale, while a single background refresh replaces
+ * it.
+ */
+class SyncCallCache<T> {
+    interface Loader<T> {
+        T load();
+    }
+
+    static class Entry<T> {
+        final T value;
+        final long fetchedAtNanos;
+        final boolean invalidated;
+
+        Entry(T value, long fetchedAtNanos, boolean invalidated) {
+            this.value = value;
+            this.fetchedAtNanos = fetchedAtNanos;
+            this.invalidated = invalidated;
+        }
+    }
+
+    private final Loader<T> loader;
+    private final Executor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile long ttlNanos;
+    private volatile Entry<T> entry;
+
+    SyncCallCache(Loader<T> loader, Executor executor, long ttlMillis) {
+        this.loader = loader;
+        this.executor = executor;
+        setTtlMillis(ttlMillis);
+    }
+
+    void setTtlMillis(long ttlMillis) {
+        ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Returns the cached entry, loading it on the calling thread if there is none yet, and starts
+     * a background refresh if it is stale.
+     */
+    Entry<T> get() {
+        Entry<T> current = entry;
+        if (current == null || ttlNanos == 0) {
+            return load();
+        }
+        if (isStale(current)) {
+            refresh();
+        }
+        return current;
+    }
+
+    boolean isStale(Entry<T> entry) {
+        return entry.invalidated || System.nanoTime() - entry.fetchedAtNanos > ttlNanos;
+    }
+
+    /**
+     * Loads the value in the background, unless a refresh is already running.
+     */
+    void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                load();
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Replaces the cached value with one known to be current.
+     */
+    void put(T value) {
+        entry = new Entry<>(value, System.nanoTime(), false);
+    }
+
+    /**
+     * Marks the cached value as stale, so that it is refreshed on its next use.
+     */
+    void invalidate() {
+        Entry<T> current = entry;
+        if (current != null) {
+            entry = new Entry<>(current.value, current.fetchedAtNanos, true);
+        }
+    }
+
+    private Entry<T> load() {
+        Entry<T> loaded = new Entry<>(loader.load(), System.nanoTime(), false);
+        entry = loaded;
+        return loaded;
+    }
+}
@@ -0,0 +1,59 @@
+// Same values as the android.util.Log priorities, so the level can be passed as is to the bridge
+public enum AptoideBillingLogLevel
+{
+    Verbose = 2,
+    Debug = 3,
+    Info = 4,
+    Warning = 5,
+    Error = 6,
+    None = 8
+}
+
+// Leveled logging of the SDK. The message and its value are only concatenated once the level check passes,
+// so disabled calls allocate nothing; debug logs, which include whole callback payloads, are off by default.
+public static class AptoideBillingLog
+{
+    public static AptoideBillingLogLevel Level { get; set; } = AptoideBillingLogLevel.Info;
+
+    public static bool IsDebugEnabled => Level <= AptoideBillingLogLevel.Debug;
+
+    public static void LogDebug(string message)
+    {
+        if (Level <= AptoideBillingLogLevel.Debug)
+        {
+            UnityEngine.Debug.Log(message);
+        }
+    }
+
+    public static void LogDebug(string message, string payload)
+    {
+        if (Level <= AptoideBillingLogLevel.Debug)
+        {
+            UnityEngine.Debug.Log(message + payload);
+        }
+    }
+
+    public static void LogDebug<T>(string message, T value)
+    {
+        if (Level <= AptoideBillingLogLevel.Debug)
+        {
+            UnityEngine.Debug.Log(message + value);
+        }
+    }
+
+    public static void LogWarning(string message)
+    {
+        if (Level <= AptoideBillingLogLevel.Warning)
+        {
+            UnityEngine.Debug.LogWarning(message);
+        }
+    }
+
+    public static void LogError(string message)
+    {
+        if (Level <= AptoideBillingLogLevel.Error)
+        {
+            UnityEngine.Debug.LogError(message);
+        }
+    }
+}
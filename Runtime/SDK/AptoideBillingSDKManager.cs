@@ -1,6 +1,9 @@
 using UnityEngine;
 using System;
+using System.Collections.Generic;
 using System.Linq;
+using System.Threading;
+using System.Threading.Tasks;
 
 public class AptoideBillingSDKManager : MonoBehaviour
 {
@@ -13,6 +16,22 @@ public class AptoideBillingSDKManager : MonoBehaviour
     private static IPurchasesResponseListener purchasesResponseListener;
     private static IProductDetailsResponseListener productDetailsResponseListener;
 
+    private static bool eventBatchingEnabled;
+    private static long overflowedEvents;
+
+    private static AndroidJavaObject binaryPayloadBuffer;
+    private static IntPtr binaryPayloadBufferAddress;
+    private static int binaryPayloadBufferGeneration;
+
+    private static readonly Dictionary<int, IConsumeBatchResponseListener> consumeBatchResponseListeners = new Dictionary<int, IConsumeBatchResponseListener>();
+
+    private static readonly Dictionary<int, TaskCompletionSource<BillingResult>> pendingBillingResultTasks = new Dictionary<int, TaskCompletionSource<BillingResult>>();
+    private static readonly Dictionary<int, TaskCompletionSource<bool>> pendingAppUpdateAvailableTasks = new Dictionary<int, TaskCompletionSource<bool>>();
+    private static readonly Dictionary<int, TaskCompletionSource<ReferralDeeplinkResult>> pendingReferralDeeplinkTasks = new Dictionary<int, TaskCompletionSource<ReferralDeeplinkResult>>();
+
+    private static readonly Dictionary<string, Dictionary<string, Purchase>> purchaseMirrors = new Dictionary<string, Dictionary<string, Purchase>>();
+    private static readonly Dictionary<string, long> purchaseMirrorSequences = new Dictionary<string, long>();
+
     public static void InitializePlugin(IAptoideBillingClientStateListener _aptoideBillingClientStateListener,
     IConsumeResponseListener _consumeResponseListener,
     IPurchasesUpdatedListener _purchasesUpdatedListener,
@@ -50,30 +69,53 @@ public class AptoideBillingSDKManager : MonoBehaviour
     public static void EndConnection()
     {
         aptoideBillingSDKUnityBridge?.CallStatic("endConnection");
+        FailAllPendingTasks("Billing connection ended.");
+    }
+
+    public static ConnectionMetrics GetConnectionMetrics()
+    {
+        string connectionMetricsJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("getConnectionMetrics") ?? "{}";
+
+        return JsonUtility.FromJson<ConnectionMetrics>(connectionMetricsJson);
+    }
+
+    // Latency percentiles per operation and response code, call and failure counters, payload sizes and connection metrics
+    public static MetricsSnapshot GetMetricsSnapshot()
+    {
+        string metricsSnapshotJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("getMetricsSnapshot") ?? "{}";
+
+        return JsonUtility.FromJson<MetricsSnapshot>(metricsSnapshotJson);
     }
 
     public static bool IsReady()
     {
         bool isReady = aptoideBillingSDKUnityBridge?.CallStatic<bool>("isReady") ?? false;
-        Debug.Log($"AptoideBillingSDKManager | IsReady: {isReady}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | IsReady: ", isReady);
 
         return isReady;
     }
 
-    public static void QueryProductDetailsAsync(QueryProductDetailsParams queryProductDetailsParams)
+    // Products may be of mixed types and are answered together. Returns the request id that tags the matching QueryProductDetailsResult.RequestId
+    public static int QueryProductDetailsAsync(QueryProductDetailsParams queryProductDetailsParams)
     {
         using (AndroidJavaObject productsList = new AndroidJavaObject("java.util.ArrayList"))
+        using (AndroidJavaObject productTypesList = new AndroidJavaObject("java.util.ArrayList"))
         {
-            string productType = null;
             foreach (QueryProductDetailsParams.Product productParams in queryProductDetailsParams.ProductList)
             {
-                productType = productParams.ProductType;
                 productsList.Call<bool>("add", productParams.ProductId);
+                productTypesList.Call<bool>("add", productParams.ProductType);
             }
-            aptoideBillingSDKUnityBridge?.CallStatic("queryProductDetailsAsync", productsList, productType);
+            return aptoideBillingSDKUnityBridge?.CallStatic<int>("queryProductDetailsAsync", productsList, productTypesList) ?? 0;
         }
     }
 
+    // Generation of the product details known to the bridge; compare with QueryProductDetailsResult.Generation to detect a stale view
+    public static long GetProductDetailsGeneration()
+    {
+        return aptoideBillingSDKUnityBridge?.CallStatic<long>("getProductDetailsGeneration") ?? 0;
+    }
+
     public static BillingResult LaunchBillingFlow(BillingFlowParams billingFlowParams)
     {
         string sku = billingFlowParams.Sku;
@@ -85,7 +127,10 @@ public class AptoideBillingSDKManager : MonoBehaviour
 
         BillingResult billingResult = JsonUtility.FromJson<BillingResult>(billingResultJson);
 
-        Debug.Log($"AptoideBillingSDKManager | LaunchBillingFlow: responseCode: {billingResult.ResponseCode}, debugMessage: {billingResult.DebugMessage}");
+        if (AptoideBillingLog.IsDebugEnabled)
+        {
+            AptoideBillingLog.LogDebug($"AptoideBillingSDKManager | LaunchBillingFlow: responseCode: {billingResult.ResponseCode}, debugMessage: {billingResult.DebugMessage}");
+        }
 
         return billingResult;
     }
@@ -95,12 +140,40 @@ public class AptoideBillingSDKManager : MonoBehaviour
         aptoideBillingSDKUnityBridge?.CallStatic("consumeAsync", consumeParams.PurchaseToken);
     }
 
+    // Consumes several purchases with a bounded number of consumes in flight. Every purchase still gets its
+    // IConsumeResponseListener callback (once, even if it is consumed again while pending), and the optional
+    // batch listener is called once all of them are done. Returns the id of the batch.
+    public static int ConsumeBatchAsync(ConsumeParams[] consumeParamsList, IConsumeBatchResponseListener consumeBatchResponseListener = null)
+    {
+        if (aptoideBillingSDKUnityBridge == null)
+        {
+            return 0;
+        }
+
+        using (AndroidJavaObject purchaseTokensList = new AndroidJavaObject("java.util.ArrayList"))
+        {
+            foreach (ConsumeParams consumeParams in consumeParamsList)
+            {
+                purchaseTokensList.Call<bool>("add", consumeParams.PurchaseToken);
+            }
+            int batchId = aptoideBillingSDKUnityBridge.CallStatic<int>("consumeBatchAsync", purchaseTokensList);
+            if (consumeBatchResponseListener != null)
+            {
+                consumeBatchResponseListeners[batchId] = consumeBatchResponseListener;
+            }
+            return batchId;
+        }
+    }
+
     public static BillingResult IsFeatureSupported(int feature)
     {
         string billingResultJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("isFeatureSupported", feature) ?? "{}";
 
         BillingResult billingResult = JsonUtility.FromJson<BillingResult>(billingResultJson);
-        Debug.Log($"AptoideBillingSDKManager | IsFeatureSupported: responseCode: {billingResult.ResponseCode}, debugMessage: {billingResult.DebugMessage}");
+        if (AptoideBillingLog.IsDebugEnabled)
+        {
+            AptoideBillingLog.LogDebug($"AptoideBillingSDKManager | IsFeatureSupported: responseCode: {billingResult.ResponseCode}, debugMessage: {billingResult.DebugMessage}");
+        }
 
         return billingResult;
     }
@@ -110,10 +183,21 @@ public class AptoideBillingSDKManager : MonoBehaviour
         aptoideBillingSDKUnityBridge?.CallStatic("queryPurchasesAsync", queryPurchasesParams.ProductType);
     }
 
+    // Same as QueryPurchasesAsync, but the bridge only sends what changed since the previous query of the product type.
+    // The full list of purchases is rebuilt here and delivered to the IPurchasesResponseListener as usual.
+    public static void QueryPurchasesDeltaAsync(QueryPurchasesParams queryPurchasesParams)
+    {
+        if (!purchaseMirrors.ContainsKey(queryPurchasesParams.ProductType))
+        {
+            aptoideBillingSDKUnityBridge?.CallStatic("resetPurchaseSync", queryPurchasesParams.ProductType);
+        }
+        aptoideBillingSDKUnityBridge?.CallStatic("queryPurchasesDeltaAsync", queryPurchasesParams.ProductType);
+    }
+
     public static ReferralDeeplinkResult GetReferralDeeplink()
     {
         string referralDeeplinkJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("getReferralDeeplink");
-        Debug.Log($"AptoideBillingSDKManager | GetReferralDeeplink: {referralDeeplinkJson}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | GetReferralDeeplink: ", referralDeeplinkJson);
 
         ReferralDeeplinkResult referralDeeplinkResult = JsonUtility.FromJson<ReferralDeeplinkResult>(referralDeeplinkJson);
         return referralDeeplinkResult;
@@ -122,11 +206,142 @@ public class AptoideBillingSDKManager : MonoBehaviour
     public static bool IsAppUpdateAvailable()
     {
         bool isAppUpdateAvailable = aptoideBillingSDKUnityBridge?.CallStatic<bool>("isAppUpdateAvailable") ?? false;
-        Debug.Log($"AptoideBillingSDKManager | IsAppUpdateAvailable: {isAppUpdateAvailable}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | IsAppUpdateAvailable: ", isAppUpdateAvailable);
 
         return isAppUpdateAvailable;
     }
 
+    // Non-blocking counterparts of LaunchBillingFlow, IsFeatureSupported, IsAppUpdateAvailable and GetReferralDeeplink.
+    // The bridge runs them off the Unity main thread (the billing flow on the activity UI thread) and the tasks
+    // complete on the main thread when their callback arrives. They are canceled with their cancellation token, for
+    // instance one from a CancellationTokenSource with a timeout, and fail with an InvalidOperationException when the
+    // connection ends or the billing service disconnects before the callback arrives.
+    public static Task<BillingResult> LaunchBillingFlowAsync(BillingFlowParams billingFlowParams, CancellationToken cancellationToken = default)
+    {
+        if (aptoideBillingSDKUnityBridge == null)
+        {
+            return Task.FromResult(JsonUtility.FromJson<BillingResult>("{}"));
+        }
+
+        int requestId = aptoideBillingSDKUnityBridge.CallStatic<int>("launchBillingFlowAsync", billingFlowParams.Sku, billingFlowParams.SkuType,
+            billingFlowParams.DeveloperPayload, billingFlowParams.ObfuscatedAccountId, billingFlowParams.FreeTrial);
+        return AddPendingTask(pendingBillingResultTasks, requestId, cancellationToken);
+    }
+
+    public static Task<BillingResult> IsFeatureSupportedAsync(int feature, CancellationToken cancellationToken = default)
+    {
+        if (aptoideBillingSDKUnityBridge == null)
+        {
+            return Task.FromResult(JsonUtility.FromJson<BillingResult>("{}"));
+        }
+
+        int requestId = aptoideBillingSDKUnityBridge.CallStatic<int>("isFeatureSupportedAsync", feature);
+        return AddPendingTask(pendingBillingResultTasks, requestId, cancellationToken);
+    }
+
+    public static Task<bool> IsAppUpdateAvailableAsync(CancellationToken cancellationToken = default)
+    {
+        if (aptoideBillingSDKUnityBridge == null)
+        {
+            return Task.FromResult(false);
+        }
+
+        int requestId = aptoideBillingSDKUnityBridge.CallStatic<int>("isAppUpdateAvailableAsync");
+        return AddPendingTask(pendingAppUpdateAvailableTasks, requestId, cancellationToken);
+    }
+
+    public static Task<ReferralDeeplinkResult> GetReferralDeeplinkAsync(CancellationToken cancellationToken = default)
+    {
+        if (aptoideBillingSDKUnityBridge == null)
+        {
+            return Task.FromResult(JsonUtility.FromJson<ReferralDeeplinkResult>("{}"));
+        }
+
+        int requestId = aptoideBillingSDKUnityBridge.CallStatic<int>("getReferralDeeplinkAsync");
+        return AddPendingTask(pendingReferralDeeplinkTasks, requestId, cancellationToken);
+    }
+
+    private static Task<T> AddPendingTask<T>(Dictionary<int, TaskCompletionSource<T>> pendingTasks, int requestId, CancellationToken cancellationToken)
+    {
+        TaskCompletionSource<T> taskCompletionSource = new TaskCompletionSource<T>();
+        pendingTasks[requestId] = taskCompletionSource;
+        if (cancellationToken.CanBeCanceled)
+        {
+            // May run on any thread, so the entry is left in place until its callback or a disconnection removes it
+            CancellationTokenRegistration registration = cancellationToken.Register(() => taskCompletionSource.TrySetCanceled(cancellationToken));
+            taskCompletionSource.Task.ContinueWith(_ => registration.Dispose(), TaskContinuationOptions.ExecuteSynchronously);
+        }
+        return taskCompletionSource.Task;
+    }
+
+    private static void CompletePendingTask<T>(Dictionary<int, TaskCompletionSource<T>> pendingTasks, int requestId, T result)
+    {
+        if (pendingTasks.TryGetValue(requestId, out TaskCompletionSource<T> taskCompletionSource))
+        {
+            pendingTasks.Remove(requestId);
+            taskCompletionSource.TrySetResult(result);
+        }
+    }
+
+    private static void FailPendingTasks<T>(Dictionary<int, TaskCompletionSource<T>> pendingTasks, string message)
+    {
+        List<TaskCompletionSource<T>> taskCompletionSources = pendingTasks.Values.ToList();
+        pendingTasks.Clear();
+        foreach (TaskCompletionSource<T> taskCompletionSource in taskCompletionSources)
+        {
+            taskCompletionSource.TrySetException(new InvalidOperationException(message));
+        }
+    }
+
+    private static void FailAllPendingTasks(string message)
+    {
+        FailPendingTasks(pendingBillingResultTasks, message);
+        FailPendingTasks(pendingAppUpdateAvailableTasks, message);
+        FailPendingTasks(pendingReferralDeeplinkTasks, message);
+    }
+
+    // The synchronous calls above are served from a cache in the bridge, prefetched after the billing setup and
+    // refreshed in the background. These variants also tell whether the returned value may be stale.
+    public static CachedBoolResult IsReadyCached()
+    {
+        string cachedResultJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("isReadyCached") ?? "{}";
+
+        return JsonUtility.FromJson<CachedBoolResult>(cachedResultJson);
+    }
+
+    public static CachedBillingResult IsFeatureSupportedCached(int feature)
+    {
+        string cachedResultJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("isFeatureSupportedCached", feature) ?? "{}";
+
+        return JsonUtility.FromJson<CachedBillingResult>(cachedResultJson);
+    }
+
+    public static CachedBoolResult IsAppUpdateAvailableCached()
+    {
+        string cachedResultJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("isAppUpdateAvailableCached") ?? "{}";
+
+        return JsonUtility.FromJson<CachedBoolResult>(cachedResultJson);
+    }
+
+    public static ReferralDeeplinkResult GetReferralDeeplinkCached()
+    {
+        string referralDeeplinkJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("getReferralDeeplinkCached") ?? "{}";
+
+        return JsonUtility.FromJson<ReferralDeeplinkResult>(referralDeeplinkJson);
+    }
+
+    // How long the result of a synchronous call is served from cache before being refreshed, 0 to always call the SDK
+    public static void SetSyncCallCacheTtl(SyncCall call, long ttlMillis)
+    {
+        aptoideBillingSDKUnityBridge?.CallStatic("setSyncCallCacheTtl", call.ToString(), ttlMillis);
+    }
+
+    // Feature types fetched in the background on every connection, so that IsFeatureSupportedCached never waits on the SDK
+    public static void SetPrefetchedFeatureTypes(params int[] features)
+    {
+        aptoideBillingSDKUnityBridge?.CallStatic("setPrefetchedFeatureTypes", features);
+    }
+
     public static void LaunchAppUpdateDialog()
     {
         aptoideBillingSDKUnityBridge?.CallStatic("launchAppUpdateDialog");
@@ -137,11 +352,155 @@ public class AptoideBillingSDKManager : MonoBehaviour
         aptoideBillingSDKUnityBridge?.CallStatic("launchAppUpdateStore");
     }
 
+    // Switches the bridge between the streaming JSON serializer (default) and the org.json tree fallback
+    public static void SetStreamingJsonSerializerEnabled(bool enabled)
+    {
+        aptoideBillingSDKUnityBridge?.CallStatic("setStreamingJsonSerializerEnabled", enabled);
+    }
+
+    // Queues the bridge callbacks in Java and drains them once per frame instead of receiving one UnitySendMessage per callback
+    public static void SetEventBatchingEnabled(bool enabled)
+    {
+        eventBatchingEnabled = enabled;
+        aptoideBillingSDKUnityBridge?.CallStatic("setEventBatchingEnabled", enabled);
+    }
+
+    // Sets the minimum level of the SDK logs in both C# and the Java bridge. Debug logs are disabled by default
+    public static void SetLogLevel(AptoideBillingLogLevel level)
+    {
+        AptoideBillingLog.Level = level;
+        aptoideBillingSDKUnityBridge?.CallStatic("setLogLevel", (int)level);
+    }
+
+    // Last billing events recorded by the bridge (operation, time, duration, response code and size), oldest first.
+    // Meant to be attached to the report of a failed purchase.
+    public static FlightRecorderDump GetFlightRecorderDump()
+    {
+        string flightRecorderDumpJson = aptoideBillingSDKUnityBridge?.CallStatic<string>("getFlightRecorderDump") ?? "{}";
+
+        return JsonUtility.FromJson<FlightRecorderDump>(flightRecorderDumpJson);
+    }
+
+    // Records every callback sent by the bridge to a trace file, relative to the files directory of the app unless absolute,
+    // to be replayed off the device by the load simulator in Benchmarks~. Returns the path of the trace, or null if it failed.
+    // Only meant for debugging, recording slows down every callback.
+    public static string StartCallbackTrace(string fileName)
+    {
+        string path = aptoideBillingSDKUnityBridge?.CallStatic<string>("startCallbackTrace", fileName);
+
+        return string.IsNullOrEmpty(path) ? null : path;
+    }
+
+    // Stops recording callbacks and returns the path of the trace, or null if none was being recorded
+    public static string StopCallbackTrace()
+    {
+        string path = aptoideBillingSDKUnityBridge?.CallStatic<string>("stopCallbackTrace");
+
+        return string.IsNullOrEmpty(path) ? null : path;
+    }
+
+    // Metrics are enabled by default; disabling them stops recording operations into the snapshot, but the flight recorder still times them
+    public static void SetMetricsEnabled(bool enabled)
+    {
+        aptoideBillingSDKUnityBridge?.CallStatic("setMetricsEnabled", enabled);
+    }
+
+    // Receives purchases and product details as binary payloads read in place from a direct ByteBuffer instead of JSON
+    public static void SetBinaryPayloadsEnabled(bool enabled)
+    {
+        aptoideBillingSDKUnityBridge?.CallStatic("setBinaryPayloadsEnabled", enabled);
+    }
+
+    private static unsafe void RefreshBinaryPayloadBuffer()
+    {
+        binaryPayloadBuffer?.Dispose();
+        binaryPayloadBuffer = aptoideBillingSDKUnityBridge.CallStatic<AndroidJavaObject>("getBinaryPayloadBuffer");
+        IntPtr rawBuffer = binaryPayloadBuffer.GetRawObject();
+        binaryPayloadBufferAddress = (IntPtr)AndroidJNI.GetDirectBufferAddress(rawBuffer);
+    }
+
+    // ---- Batched Callbacks from Java ----
+
+    private void Update()
+    {
+        if (!eventBatchingEnabled || aptoideBillingSDKUnityBridge == null)
+        {
+            return;
+        }
+
+        string eventBatchJson = aptoideBillingSDKUnityBridge.CallStatic<string>("pollEvents");
+        if (string.IsNullOrEmpty(eventBatchJson))
+        {
+            return;
+        }
+
+        BridgeEventBatch eventBatch = JsonUtility.FromJson<BridgeEventBatch>(eventBatchJson);
+        if (eventBatch.Overflowed > overflowedEvents)
+        {
+            AptoideBillingLog.LogWarning($"AptoideBillingSDKManager | Event queue over capacity, {eventBatch.Overflowed - overflowedEvents} more events queued past it. High water mark: {eventBatch.HighWaterMark}");
+            overflowedEvents = eventBatch.Overflowed;
+        }
+
+        foreach (BridgeEvent bridgeEvent in eventBatch.Events)
+        {
+            DispatchEvent(bridgeEvent);
+        }
+    }
+
+    private void DispatchEvent(BridgeEvent bridgeEvent)
+    {
+        switch (bridgeEvent.Method)
+        {
+            case nameof(BillingSetupFinishedCallback):
+                BillingSetupFinishedCallback(bridgeEvent.Payload);
+                break;
+            case nameof(BillingServiceDisconnectedCallback):
+                BillingServiceDisconnectedCallback(bridgeEvent.Payload);
+                break;
+            case nameof(PurchasesUpdatedCallback):
+                PurchasesUpdatedCallback(bridgeEvent.Payload);
+                break;
+            case nameof(PurchasesResponseCallback):
+                PurchasesResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(PurchasesDeltaResponseCallback):
+                PurchasesDeltaResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(ProductDetailsResponseCallback):
+                ProductDetailsResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(ConsumeResponseCallback):
+                ConsumeResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(ConsumeBatchResponseCallback):
+                ConsumeBatchResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(LaunchBillingFlowResponseCallback):
+                LaunchBillingFlowResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(FeatureSupportedResponseCallback):
+                FeatureSupportedResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(AppUpdateAvailableResponseCallback):
+                AppUpdateAvailableResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(ReferralDeeplinkResponseCallback):
+                ReferralDeeplinkResponseCallback(bridgeEvent.Payload);
+                break;
+            case nameof(BinaryPayloadCallback):
+                BinaryPayloadCallback(bridgeEvent.Payload);
+                break;
+            default:
+                AptoideBillingLog.LogWarning($"AptoideBillingSDKManager | Unknown batched event: {bridgeEvent.Method}");
+                break;
+        }
+    }
+
     // ---- Callback Handlers from Java ----
 
     public void BillingSetupFinishedCallback(string billingResultJson)
     {
-        Debug.Log($"Aptoide Billing Setup Finished: {billingResultJson}");
+        AptoideBillingLog.LogDebug("Aptoide Billing Setup Finished: ", billingResultJson);
 
         BillingResult billingResult = JsonUtility.FromJson<BillingResult>(billingResultJson);
 
@@ -150,13 +509,14 @@ public class AptoideBillingSDKManager : MonoBehaviour
 
     public void BillingServiceDisconnectedCallback(string _)
     {
-        Debug.LogWarning("AptoideBillingSDKManager | Aptoide Billing Service Disconnected");
+        AptoideBillingLog.LogWarning("AptoideBillingSDKManager | Aptoide Billing Service Disconnected");
+        FailAllPendingTasks("Billing service disconnected.");
         aptoideBillingClientStateListener.OnBillingServiceDisconnected();
     }
 
     public void PurchasesUpdatedCallback(string purchasesResultJson)
     {
-        Debug.Log($"AptoideBillingSDKManager | Purchase Updated: {purchasesResultJson}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Purchase Updated: ", purchasesResultJson);
 
         PurchasesResult purchasesResult = JsonUtility.FromJson<PurchasesResult>(purchasesResultJson);
 
@@ -165,16 +525,63 @@ public class AptoideBillingSDKManager : MonoBehaviour
 
     public void PurchasesResponseCallback(string purchasesResultJson)
     {
-        Debug.Log($"AptoideBillingSDKManager | Purchases Response: {purchasesResultJson}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Purchases Response: ", purchasesResultJson);
 
         PurchasesResult purchasesResult = JsonUtility.FromJson<PurchasesResult>(purchasesResultJson);
 
         purchasesResponseListener.OnQueryPurchasesResponse(purchasesResult.BillingResult, purchasesResult.Purchases);
     }
 
+    public void PurchasesDeltaResponseCallback(string purchasesDeltaResultJson)
+    {
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Purchases Delta Response: ", purchasesDeltaResultJson);
+
+        PurchasesDeltaResult purchasesDeltaResult = JsonUtility.FromJson<PurchasesDeltaResult>(purchasesDeltaResultJson);
+        string productType = purchasesDeltaResult.ProductType;
+
+        if (purchasesDeltaResult.BillingResult.ResponseCode != 0)
+        {
+            purchasesResponseListener.OnQueryPurchasesResponse(purchasesDeltaResult.BillingResult, new Purchase[0]);
+            return;
+        }
+
+        if (!purchasesDeltaResult.IsFullResync
+            && (!purchaseMirrorSequences.TryGetValue(productType, out long lastSequence) || purchasesDeltaResult.Sequence != lastSequence + 1))
+        {
+            // A delta was missed, so the mirror can no longer be trusted: start over with a full resync
+            AptoideBillingLog.LogWarning($"AptoideBillingSDKManager | Purchases delta {purchasesDeltaResult.Sequence} of {productType} out of sequence, resyncing.");
+            purchaseMirrors.Remove(productType);
+            purchaseMirrorSequences.Remove(productType);
+            QueryPurchasesDeltaAsync(QueryPurchasesParams.NewBuilder().SetProductType(productType).Build());
+            return;
+        }
+
+        if (purchasesDeltaResult.IsFullResync || !purchaseMirrors.TryGetValue(productType, out Dictionary<string, Purchase> purchaseMirror))
+        {
+            purchaseMirror = new Dictionary<string, Purchase>();
+            purchaseMirrors[productType] = purchaseMirror;
+        }
+
+        foreach (Purchase purchase in purchasesDeltaResult.Added)
+        {
+            purchaseMirror[purchase.PurchaseToken] = purchase;
+        }
+        foreach (Purchase purchase in purchasesDeltaResult.Changed)
+        {
+            purchaseMirror[purchase.PurchaseToken] = purchase;
+        }
+        foreach (string purchaseToken in purchasesDeltaResult.Removed)
+        {
+            purchaseMirror.Remove(purchaseToken);
+        }
+        purchaseMirrorSequences[productType] = purchasesDeltaResult.Sequence;
+
+        purchasesResponseListener.OnQueryPurchasesResponse(purchasesDeltaResult.BillingResult, purchaseMirror.Values.ToArray());
+    }
+
     public void ProductDetailsResponseCallback(string productDetailsResultJson)
     {
-        Debug.Log($"AptoideBillingSDKManager | Product Details Received: {productDetailsResultJson}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Product Details Received: ", productDetailsResultJson);
 
         ProductDetailsRequestResult productDetailsResult = JsonUtility.FromJson<ProductDetailsRequestResult>(productDetailsResultJson);
 
@@ -183,10 +590,109 @@ public class AptoideBillingSDKManager : MonoBehaviour
 
     public void ConsumeResponseCallback(string consumeResultJson)
     {
-        Debug.Log($"AptoideBillingSDKManager | Consume Response: {consumeResultJson}");
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Consume Response: ", consumeResultJson);
 
         ConsumeResult consumeResult = JsonUtility.FromJson<ConsumeResult>(consumeResultJson);
 
         consumeResponseListener.OnConsumeResponse(consumeResult.BillingResult, consumeResult.PurchaseToken);
     }
+
+    public void ConsumeBatchResponseCallback(string consumeBatchResultJson)
+    {
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Consume Batch Response: ", consumeBatchResultJson);
+
+        ConsumeBatchResult consumeBatchResult = JsonUtility.FromJson<ConsumeBatchResult>(consumeBatchResultJson);
+
+        if (consumeBatchResponseListeners.TryGetValue(consumeBatchResult.BatchId, out IConsumeBatchResponseListener consumeBatchResponseListener))
+        {
+            consumeBatchResponseListeners.Remove(consumeBatchResult.BatchId);
+            consumeBatchResponseListener.OnConsumeBatchResponse(consumeBatchResult.BatchId, consumeBatchResult.Results);
+        }
+    }
+
+    public void LaunchBillingFlowResponseCallback(string launchBillingFlowResultJson)
+    {
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Launch Billing Flow Response: ", launchBillingFlowResultJson);
+
+        LaunchBillingFlowResult launchBillingFlowResult = JsonUtility.FromJson<LaunchBillingFlowResult>(launchBillingFlowResultJson);
+
+        CompletePendingTask(pendingBillingResultTasks, launchBillingFlowResult.RequestId, launchBillingFlowResult.BillingResult);
+    }
+
+    public void FeatureSupportedResponseCallback(string featureSupportedResultJson)
+    {
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Feature Supported Response: ", featureSupportedResultJson);
+
+        FeatureSupportedResult featureSupportedResult = JsonUtility.FromJson<FeatureSupportedResult>(featureSupportedResultJson);
+
+        CompletePendingTask(pendingBillingResultTasks, featureSupportedResult.RequestId, featureSupportedResult.BillingResult);
+    }
+
+    public void AppUpdateAvailableResponseCallback(string appUpdateAvailableResultJson)
+    {
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | App Update Available Response: ", appUpdateAvailableResultJson);
+
+        AppUpdateAvailableResult appUpdateAvailableResult = JsonUtility.FromJson<AppUpdateAvailableResult>(appUpdateAvailableResultJson);
+
+        CompletePendingTask(pendingAppUpdateAvailableTasks, appUpdateAvailableResult.RequestId, appUpdateAvailableResult.Value);
+    }
+
+    public void ReferralDeeplinkResponseCallback(string referralDeeplinkJson)
+    {
+        AptoideBillingLog.LogDebug("AptoideBillingSDKManager | Referral Deeplink Response: ", referralDeeplinkJson);
+
+        ReferralDeeplinkResult referralDeeplinkResult = JsonUtility.FromJson<ReferralDeeplinkResult>(referralDeeplinkJson);
+
+        CompletePendingTask(pendingReferralDeeplinkTasks, referralDeeplinkResult.RequestId, referralDeeplinkResult);
+    }
+
+    public void BinaryPayloadCallback(string payloadId)
+    {
+        int length = aptoideBillingSDKUnityBridge.CallStatic<int>("encodeBinaryPayload", int.Parse(payloadId));
+        if (length < 0)
+        {
+            AptoideBillingLog.LogWarning($"AptoideBillingSDKManager | Binary payload {payloadId} is no longer available");
+            return;
+        }
+
+        // The bridge may have replaced its buffer while encoding, even for a payload that fits in the previous one
+        int bufferGeneration = aptoideBillingSDKUnityBridge.CallStatic<int>("getBinaryPayloadBufferGeneration");
+        if (binaryPayloadBuffer == null || bufferGeneration != binaryPayloadBufferGeneration)
+        {
+            RefreshBinaryPayloadBuffer();
+            binaryPayloadBufferGeneration = bufferGeneration;
+        }
+
+        BinaryPayloadReader reader = new BinaryPayloadReader(binaryPayloadBufferAddress, length);
+        byte formatVersion = reader.ReadByte();
+        if (formatVersion != BinaryPayloadDecoder.FormatVersion)
+        {
+            AptoideBillingLog.LogError($"AptoideBillingSDKManager | Unsupported binary payload version: {formatVersion}");
+            return;
+        }
+
+        byte kind = reader.ReadByte();
+        if (AptoideBillingLog.IsDebugEnabled)
+        {
+            AptoideBillingLog.LogDebug($"AptoideBillingSDKManager | Binary payload received: kind: {kind}, length: {length}");
+        }
+        switch (kind)
+        {
+            case BinaryPayloadDecoder.KindPurchasesUpdated:
+                PurchasesResult purchasesUpdatedResult = BinaryPayloadDecoder.DecodePurchasesResult(reader);
+                purchasesUpdatedListener.OnPurchasesUpdated(purchasesUpdatedResult.BillingResult, purchasesUpdatedResult.Purchases);
+                break;
+            case BinaryPayloadDecoder.KindPurchasesResponse:
+                PurchasesResult purchasesResult = BinaryPayloadDecoder.DecodePurchasesResult(reader);
+                purchasesResponseListener.OnQueryPurchasesResponse(purchasesResult.BillingResult, purchasesResult.Purchases);
+                break;
+            case BinaryPayloadDecoder.KindProductDetailsResponse:
+                ProductDetailsRequestResult productDetailsResult = BinaryPayloadDecoder.DecodeProductDetailsRequestResult(reader);
+                productDetailsResponseListener.OnProductDetailsResponse(productDetailsResult.BillingResult, productDetailsResult.ProductDetailsResult);
+                break;
+            default:
+                AptoideBillingLog.LogError($"AptoideBillingSDKManager | Unknown binary payload kind: {kind}");
+                break;
+        }
+    }
 }
@@ -0,0 +1,23 @@
+// Results of the asynchronous counterparts of the synchronous bridge calls, tagged with the id of their request
+
+[System.Serializable]
+public class LaunchBillingFlowResult
+{
+    public int RequestId;
+    public BillingResult BillingResult;
+}
+
+[System.Serializable]
+public class FeatureSupportedResult
+{
+    public int RequestId;
+    public int Feature;
+    public BillingResult BillingResult;
+}
+
+[System.Serializable]
+public class AppUpdateAvailableResult
+{
+    public int RequestId;
+    public bool Value;
+}
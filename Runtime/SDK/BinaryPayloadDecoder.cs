@@ -0,0 +1,209 @@
+using System;
+using System.Collections.Generic;
+using System.Text;
+
+// Decodes the binary payloads written by BridgeBinaryPayloads.java. Both sides must follow the same field order.
+public static class BinaryPayloadDecoder
+{
+    public const byte FormatVersion = 1;
+    public const byte KindPurchasesUpdated = 1;
+    public const byte KindPurchasesResponse = 2;
+    public const byte KindProductDetailsResponse = 3;
+
+    public static PurchasesResult DecodePurchasesResult(BinaryPayloadReader reader)
+    {
+        PurchasesResult purchasesResult = new PurchasesResult();
+        purchasesResult.BillingResult = DecodeBillingResult(reader);
+
+        int purchasesCount = reader.ReadInt32();
+        purchasesResult.Purchases = new Purchase[purchasesCount];
+        for (int i = 0; i < purchasesCount; i++)
+        {
+            Purchase purchase = new Purchase();
+            purchase.AccountIdentifiers = new AccountIdentifiers();
+            purchase.AccountIdentifiers.ObfuscatedAccountId = reader.ReadString();
+            purchase.DeveloperPayload = reader.ReadString();
+            purchase.OrderId = reader.ReadString();
+            purchase.OriginalJson = reader.ReadString();
+            purchase.PackageName = reader.ReadString();
+
+            int productsCount = reader.ReadInt32();
+            purchase.Products = new string[productsCount];
+            for (int j = 0; j < productsCount; j++)
+            {
+                purchase.Products[j] = reader.ReadString();
+            }
+
+            purchase.PurchaseState = reader.ReadInt32();
+            purchase.PurchaseTime = reader.ReadInt64();
+            purchase.PurchaseToken = reader.ReadString();
+            purchase.Signature = reader.ReadString();
+            purchase.isAutoRenewing = reader.ReadBoolean();
+            purchasesResult.Purchases[i] = purchase;
+        }
+
+        return purchasesResult;
+    }
+
+    public static ProductDetailsRequestResult DecodeProductDetailsRequestResult(BinaryPayloadReader reader)
+    {
+        ProductDetailsRequestResult productDetailsRequestResult = new ProductDetailsRequestResult();
+        productDetailsRequestResult.BillingResult = DecodeBillingResult(reader);
+
+        QueryProductDetailsResult productDetailsResult = new QueryProductDetailsResult();
+        productDetailsResult.RequestId = reader.ReadInt32();
+        productDetailsResult.Generation = reader.ReadInt64();
+
+        int productDetailsCount = reader.ReadInt32();
+        productDetailsResult.ProductDetailsList = new List<ProductDetails>(productDetailsCount);
+        for (int i = 0; i < productDetailsCount; i++)
+        {
+            productDetailsResult.ProductDetailsList.Add(DecodeProductDetails(reader));
+        }
+
+        int unfetchedProductsCount = reader.ReadInt32();
+        productDetailsResult.UnfetchedProductList = new List<UnfetchedProduct>(unfetchedProductsCount);
+        for (int i = 0; i < unfetchedProductsCount; i++)
+        {
+            UnfetchedProduct unfetchedProduct = new UnfetchedProduct();
+            unfetchedProduct.ProductId = reader.ReadString();
+            unfetchedProduct.ProductType = reader.ReadString();
+            unfetchedProduct.StatusCode = reader.ReadInt32();
+            productDetailsResult.UnfetchedProductList.Add(unfetchedProduct);
+        }
+
+        productDetailsRequestResult.ProductDetailsResult = productDetailsResult;
+        return productDetailsRequestResult;
+    }
+
+    private static BillingResult DecodeBillingResult(BinaryPayloadReader reader)
+    {
+        BillingResult billingResult = new BillingResult();
+        billingResult.ResponseCode = reader.ReadInt32();
+        billingResult.DebugMessage = reader.ReadString();
+        return billingResult;
+    }
+
+    // Absent offers are decoded as empty objects, like JsonUtility does for the JSON payloads
+    private static ProductDetails DecodeProductDetails(BinaryPayloadReader reader)
+    {
+        ProductDetails productDetails = new ProductDetails();
+        productDetails.ProductId = reader.ReadString();
+        productDetails.ProductType = reader.ReadString();
+        productDetails.Title = reader.ReadString();
+        productDetails.Description = reader.ReadString();
+
+        OneTimePurchaseOfferDetails offer = new OneTimePurchaseOfferDetails();
+        if (reader.ReadBoolean())
+        {
+            offer.FormattedPrice = reader.ReadString();
+            offer.PriceAmountMicros = reader.ReadInt64();
+            offer.PriceCurrencyCode = reader.ReadString();
+            offer.AppcFormattedPrice = reader.ReadString();
+            offer.AppcPriceAmountMicros = reader.ReadInt64();
+            offer.AppcPriceCurrencyCode = reader.ReadString();
+            offer.FiatFormattedPrice = reader.ReadString();
+            offer.FiatPriceAmountMicros = reader.ReadInt64();
+            offer.FiatPriceCurrencyCode = reader.ReadString();
+        }
+        productDetails.OneTimePurchaseOfferDetails = offer;
+
+        int offerDetailsCount = reader.ReadInt32();
+        productDetails.SubscriptionOfferDetails = new List<SubscriptionOfferDetails>(Math.Max(offerDetailsCount, 0));
+        for (int i = 0; i < offerDetailsCount; i++)
+        {
+            SubscriptionOfferDetails offerDetails = new SubscriptionOfferDetails();
+            offerDetails.PricingPhases = new PricingPhases();
+
+            int pricingPhasesCount = reader.ReadInt32();
+            offerDetails.PricingPhases.PricingPhaseList = new List<PricingPhase>(pricingPhasesCount);
+            for (int j = 0; j < pricingPhasesCount; j++)
+            {
+                PricingPhase pricingPhase = new PricingPhase();
+                pricingPhase.BillingPeriod = reader.ReadString();
+                pricingPhase.FormattedPrice = reader.ReadString();
+                pricingPhase.PriceAmountMicros = reader.ReadInt64();
+                pricingPhase.PriceCurrencyCode = reader.ReadString();
+                pricingPhase.AppcFormattedPrice = reader.ReadString();
+                pricingPhase.AppcPriceAmountMicros = reader.ReadInt64();
+                pricingPhase.AppcPriceCurrencyCode = reader.ReadString();
+                pricingPhase.FiatFormattedPrice = reader.ReadString();
+                pricingPhase.FiatPriceAmountMicros = reader.ReadInt64();
+                pricingPhase.FiatPriceCurrencyCode = reader.ReadString();
+                offerDetails.PricingPhases.PricingPhaseList.Add(pricingPhase);
+            }
+
+            offerDetails.TrialDetails = new TrialDetails();
+            if (reader.ReadBoolean())
+            {
+                offerDetails.TrialDetails.Period = reader.ReadString();
+                offerDetails.TrialDetails.PeriodEndDate = reader.ReadString();
+            }
+            productDetails.SubscriptionOfferDetails.Add(offerDetails);
+        }
+
+        return productDetails;
+    }
+}
+
+// Little-endian reader over native memory, used to read the bridge direct ByteBuffer without copying it
+public unsafe class BinaryPayloadReader
+{
+    private readonly byte* data;
+    private readonly int length;
+    private int position;
+
+    public BinaryPayloadReader(IntPtr address, int length)
+    {
+        data = (byte*)address;
+        this.length = length;
+    }
+
+    public byte ReadByte()
+    {
+        Require(1);
+        return data[position++];
+    }
+
+    public bool ReadBoolean()
+    {
+        return ReadByte() != 0;
+    }
+
+    public int ReadInt32()
+    {
+        Require(4);
+        byte* bytes = data + position;
+        position += 4;
+        return bytes[0] | (bytes[1] << 8) | (bytes[2] << 16) | (bytes[3] << 24);
+    }
+
+    public long ReadInt64()
+    {
+        uint low = (uint)ReadInt32();
+        uint high = (uint)ReadInt32();
+        return (long)(((ulong)high << 32) | low);
+    }
+
+    public string ReadString()
+    {
+        int byteCount = ReadInt32();
+        if (byteCount < 0)
+        {
+            return null;
+        }
+
+        Require(byteCount);
+        string value = Encoding.UTF8.GetString(data + position, byteCount);
+        position += byteCount;
+        return value;
+    }
+
+    private void Require(int count)
+    {
+        if (position + count > length)
+        {
+            throw new FormatException($"Binary payload truncated: needs {count} bytes at {position} of {length}.");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+[System.Serializable]
+public class BridgeEventBatch
+{
+    public BridgeEvent[] Events; // Callbacks queued since the previous poll, in arrival order
+    public int Depth; // Events queued while this batch was being drained
+    public int HighWaterMark; // Highest queue depth since the bridge started
+    public long Enqueued; // Total events queued since the bridge started
+    public long Overflowed; // Events queued past the queue capacity, which Unity drains too slowly
+}
+
+[System.Serializable]
+public class BridgeEvent
+{
+    public string Method; // Name of the AptoideBillingSDKManager callback handler
+    public string Payload; // Payload the callback handler would have received from UnitySendMessage
+}
@@ -0,0 +1,22 @@
+// Results of the synchronous calls served from the bridge cache
+public enum SyncCall
+{
+    IsReady,
+    IsFeatureSupported,
+    IsAppUpdateAvailable,
+    GetReferralDeeplink
+}
+
+[System.Serializable]
+public class CachedBoolResult
+{
+    public bool Value;
+    public bool IsStale; // True when the value is older than its TTL or was invalidated by a disconnection, and is being refreshed
+}
+
+[System.Serializable]
+public class CachedBillingResult
+{
+    public BillingResult BillingResult;
+    public bool IsStale; // True when the value is older than its TTL or was invalidated by a disconnection, and is being refreshed
+}
@@ -0,0 +1,14 @@
+[System.Serializable]
+public class ConnectionMetrics
+{
+    public string State; // DISCONNECTED, CONNECTING, CONNECTED or CLOSED
+    public long ConnectAttempts;
+    public long ConnectFailures;
+    public long Disconnects;
+    public long Reconnects; // Connection attempts started automatically after a disconnection or failed setup
+    public long LastConnectLatencyMillis;
+    public int PendingOperations; // Operations waiting for the connection to be set up
+    public long ReplayedOperations;
+    public long ExpiredOperations; // Operations failed with SERVICE_DISCONNECTED after their queue deadline
+    public long RejectedOperations; // Operations failed because the pending queue was full
+}
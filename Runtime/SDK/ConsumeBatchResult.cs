@@ -0,0 +1,6 @@
+[System.Serializable]
+public class ConsumeBatchResult
+{
+    public int BatchId; // Id returned by ConsumeBatchAsync
+    public ConsumeResult[] Results; // One result per distinct purchase token of the batch, in submission order
+}
@@ -0,0 +1,17 @@
+[System.Serializable]
+public class FlightRecorderDump
+{
+    public int Capacity; // Number of events kept, older ones are overwritten
+    public long Recorded; // Events recorded since the bridge was loaded
+    public FlightRecorderEvent[] Events; // Oldest first
+}
+
+[System.Serializable]
+public class FlightRecorderEvent
+{
+    public string Event; // e.g. BillingSetupFinished, QueryProductDetails, LaunchBillingFlow, PurchasesUpdated, Consume
+    public long Timestamp; // Unix time in milliseconds at which the event finished
+    public long DurationMicros; // -1 for events without a duration
+    public int ResponseCode;
+    public int Size; // Number of products, purchases or purchase tokens involved
+}
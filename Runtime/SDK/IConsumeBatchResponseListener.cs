@@ -0,0 +1,4 @@
+public interface IConsumeBatchResponseListener
+{
+    void OnConsumeBatchResponse(int batchId, ConsumeResult[] results);
+}
@@ -0,0 +1,31 @@
+[System.Serializable]
+public class MetricsSnapshot
+{
+    public bool Enabled;
+    public OperationMetrics[] Operations;
+    public ConnectionMetrics Connection; // Includes the reconnect counters
+}
+
+[System.Serializable]
+public class OperationMetrics
+{
+    public string Name; // e.g. QueryProductDetails, LaunchBillingFlow (until PurchasesUpdated), SerializePurchases
+    public long Calls; // Finished operations recorded while metrics were enabled
+    public long Failures; // Finished with a response code other than OK
+    public long Payloads;
+    public long PayloadBytes; // Total size of the payloads produced by the operation
+    public long MaxPayloadBytes;
+    public LatencyMetrics[] Latencies; // One entry per response code seen
+}
+
+[System.Serializable]
+public class LatencyMetrics
+{
+    public int ResponseCode; // int.MinValue groups the codes outside the known range
+    public long Count;
+    // Percentiles are the upper bound of their power-of-two histogram bucket
+    public long P50Micros;
+    public long P90Micros;
+    public long P99Micros;
+    public long MaxMicros;
+}
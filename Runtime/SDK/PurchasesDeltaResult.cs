@@ -0,0 +1,11 @@
+[System.Serializable]
+public class PurchasesDeltaResult
+{
+    public BillingResult BillingResult; // BillingResult of Purchases request
+    public string ProductType;
+    public long Sequence; // Increases by one on every delta of the product type
+    public bool IsFullResync; // When true, Added holds every purchase and the previous ones must be discarded
+    public Purchase[] Added; // Purchases not sent before
+    public Purchase[] Changed; // Purchases whose state or auto-renewing flag changed
+    public string[] Removed; // Purchase tokens of the purchases no longer returned
+}
@@ -22,12 +22,6 @@ public class QueryProductDetailsParams
                 throw new ArgumentException("Product list must not be empty.");
             }
 
-            var distinctProductTypes = productList.Select(p => p.ProductType).Distinct().ToList();
-            if (distinctProductTypes.Count != 1)
-            {
-                throw new ArgumentException("All products must be of the same type.");
-            }
-
             var distinctProductIds = productList.Select(p => p.ProductId).Distinct().ToList();
             if (distinctProductIds.Count != productList.Count)
             {
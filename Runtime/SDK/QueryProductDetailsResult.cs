@@ -6,4 +6,7 @@ public class QueryProductDetailsResult
 {
     public List<ProductDetails> ProductDetailsList;
     public List<UnfetchedProduct> UnfetchedProductList;
+    public int RequestId; // Id returned by AptoideBillingSDKManager.QueryProductDetailsAsync for this result
+    public long Generation; // Generation of the bridge product details store after this result was stored
+    public bool IsStale; // True when served from the on-device catalog cache before the refreshed result arrives
 }
@@ -4,4 +4,6 @@ public class ReferralDeeplinkResult
     public BillingResult BillingResult;
     public string StoreDeeplink;
     public string FallbackDeeplink;
+    public bool IsStale; // Only set by GetReferralDeeplinkCached
+    public int RequestId; // Only set by GetReferralDeeplinkAsync
 }